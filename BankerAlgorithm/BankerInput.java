@@ -0,0 +1,246 @@
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+
+/*
+Byte-level loader for the R/P input format:
+
+  R1: 3          one line per resource type, giving the total amount
+  P1: 0 1 4 ...  one line per process, M held values followed by M max values
+  Q1: 0 0 1 ...  optional, M values the process is currently requesting
+                 (used by deadlock detection, must follow its P line)
+
+Numbers may be separated by spaces, tabs, ':' and ',', blank lines are
+skipped and lines starting with '#' are comments. Any other character
+between the numbers, including a '-' sign, is an error rather than a
+separator. Files up to 2 GB are memory-mapped, larger ones are streamed
+through a direct buffer, and values go straight into primitive arrays.
+Malformed input is reported with its line number.
+*/
+class BankerInput {
+  private static final int BUFFER_SIZE = 1 << 20;
+
+  int resourceCount = 0;
+  int processCount = 0;
+  int[] resources = new int[16]; // Total amount of each resource type
+  int[] held = new int[256]; // held[p * M + r]
+  int[] max = new int[256]; // max[p * M + r]
+  int[] request = new int[256]; // request[p * M + r], zero unless a Q line gives it
+
+  private final Path path;
+  private FileChannel channel;
+  private ByteBuffer buffer;
+  private boolean streaming;
+  private long line = 1;
+  private int value; // Last number read by readValue
+
+  private BankerInput(Path path) {
+    this.path = path;
+  }
+
+  static BankerInput load(Path path) throws IOException {
+    BankerInput input = new BankerInput(path);
+    try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+      input.channel = channel;
+      long size = channel.size();
+      if (size <= Integer.MAX_VALUE) {
+        input.buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+      } else {
+        input.streaming = true;
+        input.buffer = ByteBuffer.allocateDirect(BUFFER_SIZE);
+        input.buffer.flip(); // Start empty, the first read fills it
+      }
+      input.parse();
+    }
+    input.resources = Arrays.copyOf(input.resources, input.resourceCount);
+    input.held = Arrays.copyOf(input.held, input.processCount * input.resourceCount);
+    input.max = Arrays.copyOf(input.max, input.processCount * input.resourceCount);
+    input.request = Arrays.copyOf(input.request, input.processCount * input.resourceCount);
+    return input;
+  }
+
+  // Builds Process objects for the search engines that work on them
+  Process[] toProcesses() {
+    Process[] processArray = new Process[processCount];
+    for (int p = 0; p < processCount; p++) {
+      int from = p * resourceCount;
+      processArray[p] = new Process(Arrays.copyOfRange(held, from, from + resourceCount),
+        Arrays.copyOfRange(max, from, from + resourceCount), p, resourceCount);
+    }
+    return processArray;
+  }
+
+  // Resources not held by any process
+  int[] currentResources() {
+    int[] current = resources.clone();
+    for (int p = 0; p < processCount; p++) {
+      for (int r = 0; r < resourceCount; r++) {
+        current[r] -= held[p * resourceCount + r];
+      }
+    }
+    return current;
+  }
+
+  // Returns the next byte, or -1 at the end of the file
+  private int next() throws IOException {
+    if (!buffer.hasRemaining()) {
+      if (!streaming) {
+        return -1;
+      }
+      buffer.clear();
+      int read = channel.read(buffer);
+      buffer.flip();
+      if (read <= 0) {
+        return -1;
+      }
+    }
+    return buffer.get() & 0xff;
+  }
+
+  private IOException error(String message) {
+    return new IOException(path + ":" + line + ": " + message);
+  }
+
+  private void parse() throws IOException {
+    int c = next();
+    while (c != -1) {
+      if (c == 'R') {
+        c = parseResource();
+      } else if (c == 'P') {
+        c = parseProcess();
+      } else if (c == 'Q') {
+        c = parseRequest();
+      } else if (c == '#') {
+        c = skipLine(c);
+      } else if (c == '\n') {
+        c = skipLine(c);
+      } else if (c == '\r' || c == ' ' || c == '\t') {
+        c = next(); // Leading whitespace
+      } else {
+        throw error("expected a line starting with R, P or Q but found '" + (char) c + "'");
+      }
+    }
+  }
+
+  // Skips to the first byte of the next line
+  private int skipLine(int c) throws IOException {
+    while (c != -1 && c != '\n') {
+      c = next();
+    }
+    if (c == '\n') {
+      line += 1;
+      c = next();
+    }
+    return c;
+  }
+
+  // Reads "R<index>: <amount>", returns the first byte of the next line
+  private int parseResource() throws IOException {
+    if (processCount > 0) {
+      throw error("resource lines must come before process lines");
+    }
+    int c = readValue(next(), 0, 2, "numbers (index and amount)");
+    c = readValue(c, 1, 2, "numbers (index and amount)");
+    if (resourceCount == resources.length) {
+      resources = Arrays.copyOf(resources, resourceCount * 2);
+    }
+    resources[resourceCount++] = value;
+    return expectEndOfLine(c);
+  }
+
+  // Reads "P<index>: <held x M> <max x M>", returns the first byte of the next line
+  private int parseProcess() throws IOException {
+    int m = resourceCount;
+    if (m == 0) {
+      throw error("process line found before any resource line");
+    }
+    int needed = (processCount + 1) * m;
+    if (needed > held.length) {
+      held = Arrays.copyOf(held, Math.max(needed, held.length * 2));
+      max = Arrays.copyOf(max, held.length);
+      request = Arrays.copyOf(request, held.length);
+    }
+    int c = next();
+    c = skipNumber(c); // Process index
+    int base = processCount * m;
+    for (int k = 0; k < 2 * m; k++) {
+      c = readValue(c, k, 2 * m, "values (held then max)");
+      if (k < m) {
+        held[base + k] = value;
+      } else {
+        max[base + k - m] = value;
+        if (value < held[base + k - m]) {
+          throw error("P" + (processCount + 1) + " holds more of R" + (k - m + 1) + " than its maximum");
+        }
+      }
+    }
+    c = expectEndOfLine(c);
+    processCount += 1;
+    return c;
+  }
+
+  // Reads "Q<index>: <request x M>", returns the first byte of the next line
+  private int parseRequest() throws IOException {
+    int m = resourceCount;
+    int c = readValue(next(), 0, m + 1, "numbers (process index and requests)");
+    int p = value - 1;
+    if (p < 0 || p >= processCount) {
+      throw error("request for P" + value + " must follow that process's P line");
+    }
+    for (int k = 0; k < m; k++) {
+      c = readValue(c, k + 1, m + 1, "numbers (process index and requests)");
+      request[p * m + k] = value;
+    }
+    return expectEndOfLine(c);
+  }
+
+  private int skipNumber(int c) throws IOException {
+    while (c >= '0' && c <= '9') {
+      c = next();
+    }
+    return c;
+  }
+
+  /*
+  Skips separators and reads the k-th of count numbers on the current line
+  into value, returning the byte after it.
+  */
+  private int readValue(int c, int k, int count, String what) throws IOException {
+    while (c == ' ' || c == '\t' || c == '\r' || c == ':' || c == ',') {
+      c = next();
+    }
+    if (c == -1 || c == '\n') {
+      throw error("expected " + count + " " + what + " but found " + k);
+    }
+    if (c == '-') {
+      throw error("values must not be negative");
+    }
+    if (c < '0' || c > '9') {
+      throw error("expected a number but found '" + (char) c + "'");
+    }
+    long parsed = 0;
+    while (c >= '0' && c <= '9') {
+      parsed = parsed * 10 + (c - '0');
+      if (parsed > Integer.MAX_VALUE) {
+        throw error("value is too large");
+      }
+      c = next();
+    }
+    value = (int) parsed;
+    return c;
+  }
+
+  // Allows trailing whitespace only, then moves to the next line
+  private int expectEndOfLine(int c) throws IOException {
+    while (c == ' ' || c == '\t' || c == '\r') {
+      c = next();
+    }
+    if (c != -1 && c != '\n') {
+      throw error("unexpected '" + (char) c + "' after the last value");
+    }
+    return skipLine(c);
+  }
+}
@@ -0,0 +1,124 @@
+import java.util.Arrays;
+
+/*
+Dynamically sized Banker's state stored column-major (struct of arrays): for
+each resource r the need and held values of all processes are contiguous at
+[r * N, r * N + N). This has no limit on the number of processes or resource
+types and keeps per-resource scans on one cache-friendly run of ints.
+
+findSafeSequence is the fast path used when only one safe sequence is needed.
+For every resource the processes are sorted by their need of that resource
+and a pointer walks forward as the available amount grows; a process enters
+the ready queue once all M pointers have passed it. Each process is run at
+most once and each pointer only moves forward, so the whole check takes
+O(N * M * log N), well within the O(N^2 * M) of the textbook safety check.
+*/
+class BankerModel {
+  final int processCount;
+  final int resourceCount;
+  final int[] available; // Resources not held by any process
+  final int[] need; // need[r * N + p] = max - held
+  final int[] held; // held[r * N + p]
+
+  BankerModel(int processNo, int resourceNo) {
+    processCount = processNo;
+    resourceCount = resourceNo;
+    available = new int[resourceNo];
+    need = new int[processNo * resourceNo];
+    held = new int[processNo * resourceNo];
+  }
+
+  // Copies the processes read by Main into column-major arrays
+  static BankerModel fromProcesses(Process[] processArray, int processNo, int[] currentResources, int resourceNo) {
+    BankerModel model = new BankerModel(processNo, resourceNo);
+    System.arraycopy(currentResources, 0, model.available, 0, resourceNo);
+    int[] row = new int[resourceNo];
+    for (int p = 0; p < processNo; p++) {
+      processArray[p].copyNeed(row, 0);
+      int[] pHeld = processArray[p].getHeldResources();
+      for (int r = 0; r < resourceNo; r++) {
+        model.need[r * processNo + p] = row[r];
+        model.held[r * processNo + p] = pHeld[r];
+      }
+    }
+    return model;
+  }
+
+  // Transposes the row-major arrays of a loaded input file, without building Process objects
+  static BankerModel fromInput(BankerInput input) {
+    int n = input.processCount;
+    int m = input.resourceCount;
+    BankerModel model = new BankerModel(n, m);
+    System.arraycopy(input.currentResources(), 0, model.available, 0, m);
+    for (int p = 0; p < n; p++) {
+      for (int r = 0; r < m; r++) {
+        model.need[r * n + p] = input.max[p * m + r] - input.held[p * m + r];
+        model.held[r * n + p] = input.held[p * m + r];
+      }
+    }
+    return model;
+  }
+
+  /*
+  Returns one safe sequence (process indexes in run order), or null when the
+  state is unsafe. The model itself is not modified.
+  */
+  int[] findSafeSequence() {
+    int n = processCount;
+    int[] work = available.clone();
+    int[] sorted = new int[n * resourceCount]; // Process indexes ordered by need, per resource
+    long[] keys = new long[n];
+    for (int r = 0; r < resourceCount; r++) {
+      int base = r * n;
+      for (int p = 0; p < n; p++) {
+        keys[p] = ((long) need[base + p] << 32) | p; // Needs are never negative, so keys sort by need
+      }
+      Arrays.sort(keys);
+      for (int k = 0; k < n; k++) {
+        sorted[base + k] = (int) keys[k];
+      }
+    }
+
+    int[] satisfied = new int[n]; // Resources whose need currently fits, per process
+    int[] ready = new int[n]; // Ready queue, which doubles as the resulting sequence
+    int head = 0;
+    int tail = 0;
+    int[] pointer = new int[resourceCount];
+    if (resourceCount == 0) {
+      for (int p = 0; p < n; p++) {
+        ready[tail++] = p;
+      }
+    }
+    for (int r = 0; r < resourceCount; r++) {
+      tail = advance(r, work[r], sorted, pointer, satisfied, ready, tail);
+    }
+    while (head < tail) {
+      int p = ready[head++];
+      for (int r = 0; r < resourceCount; r++) {
+        int amount = held[r * n + p];
+        if (amount != 0) {
+          work[r] += amount;
+          tail = advance(r, work[r], sorted, pointer, satisfied, ready, tail);
+        }
+      }
+    }
+    return tail == n ? ready : null;
+  }
+
+  // Moves the pointer of resource r past every process whose need now fits
+  private int advance(int r, int amount, int[] sorted, int[] pointer, int[] satisfied, int[] ready, int tail) {
+    int n = processCount;
+    int base = r * n;
+    int k = pointer[r];
+    while (k < n && need[base + sorted[base + k]] <= amount) {
+      int p = sorted[base + k];
+      satisfied[p] += 1;
+      if (satisfied[p] == resourceCount) {
+        ready[tail++] = p;
+      }
+      k++;
+    }
+    pointer[r] = k;
+    return tail;
+  }
+}
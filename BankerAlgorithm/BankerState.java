@@ -0,0 +1,323 @@
+import java.util.Arrays;
+
+/*
+Online version of the Banker's algorithm. Instead of enumerating every safe
+sequence for a fixed snapshot, the state keeps one known safe sequence and
+answers resource requests as they arrive. A process can run when its need
+(max - held) fits in the available resources, the same test as
+Process.canRun.
+
+For every position k of the stored sequence the state tracks the slack
+work_k - need_k, where work_k is what is available once the processes ahead
+of k have finished. Granting r to process P lowers work_k by r for every
+position ahead of P and leaves the rest unchanged (P's need drops by r, and
+P gives the r back when it finishes). So a request is safe along the stored
+sequence exactly when the minimum slack ahead of P is at least r, and a
+release adds r to that same prefix. The slack is kept in one segment tree per
+resource with range add and range minimum, so both checks take O(M log N).
+The full safety check only runs when the stored sequence no longer works.
+All public operations are synchronized so one state can be shared by many
+threads.
+*/
+class BankerState {
+  private static final int NO_LIMIT = Integer.MAX_VALUE / 2; // Slack of unused tree leaves
+
+  private final int resourceCount;
+  private final int[] total; // Total resources of each type in the system
+  private final int[] available;
+  private int[][] max = new int[16][]; // Indexed by pid, null once a process is removed
+  private int[][] held = new int[16][];
+  private int processCount = 0; // Number of pids handed out so far
+  private int[] sequence = new int[16]; // Known safe order of the live processes
+  private int[] position = new int[16]; // pid -> index in sequence
+  private int sequenceLength = 0;
+  private boolean safe = true;
+  private int treeSize = 0; // Leaves per slack tree (power of two)
+  private int[][] slackMin; // slackMin[r][node] = minimum slack of resource r below node
+  private int[][] slackAdd; // Pending addition for the whole subtree of node
+
+  BankerState(int[] totalResources) {
+    resourceCount = totalResources.length;
+    total = totalResources.clone();
+    available = totalResources.clone();
+    rebuildSlack();
+  }
+
+  // Builds a state from the processes read by Main, with their current allocations
+  BankerState(Process[] processArray, int processNo, int[] resourceArray, int resourceNo) {
+    this(Arrays.copyOf(resourceArray, resourceNo));
+    for (int p = 0; p < processNo; p++) {
+      int pid = addProcess(Arrays.copyOf(processArray[p].maxResources, resourceNo));
+      int[] pHeld = Arrays.copyOf(processArray[p].getHeldResources(), resourceNo);
+      for (int i = 0; i < resourceCount; i++) {
+        held[pid][i] = pHeld[i];
+        available[i] -= pHeld[i];
+      }
+    }
+    safe = fullCheck();
+  }
+
+  // Registers a new process holding nothing and returns its pid
+  synchronized int addProcess(int[] maxResources) {
+    for (int i = 0; i < resourceCount; i++) {
+      if (maxResources[i] > total[i]) {
+        throw new IllegalArgumentException("Process needs more of R" + (i + 1) + " than the system has.");
+      }
+    }
+    if (processCount == max.length) {
+      max = Arrays.copyOf(max, processCount * 2);
+      held = Arrays.copyOf(held, processCount * 2);
+      position = Arrays.copyOf(position, processCount * 2);
+    }
+    if (sequenceLength == sequence.length) {
+      sequence = Arrays.copyOf(sequence, sequenceLength * 2);
+    }
+    int pid = processCount++;
+    max[pid] = maxResources.clone();
+    held[pid] = new int[resourceCount];
+    position[pid] = sequenceLength;
+    sequence[sequenceLength++] = pid; // With nothing held it can always finish last
+    if (sequenceLength > treeSize) {
+      rebuildSlack();
+    } else {
+      for (int i = 0; i < resourceCount; i++) {
+        setLeaf(i, sequenceLength - 1, total[i] - maxResources[i]); // Everything else has finished by then
+      }
+    }
+    return pid;
+  }
+
+  // Removes a process and returns everything it holds
+  synchronized void removeProcess(int pid) {
+    checkPid(pid);
+    for (int i = 0; i < resourceCount; i++) {
+      available[i] += held[pid][i];
+    }
+    for (int k = position[pid] + 1; k < sequenceLength; k++) {
+      sequence[k - 1] = sequence[k];
+      position[sequence[k - 1]] = k - 1;
+    }
+    sequenceLength -= 1;
+    max[pid] = null;
+    held[pid] = null;
+    if (safe) {
+      rebuildSlack(); // Positions shifted, so the trees are rebuilt
+    } else {
+      safe = fullCheck(); // Freed resources may have made an unsafe state safe again
+    }
+  }
+
+  /*
+  Grants the request if the resources are available and the state stays
+  safe, otherwise leaves the state unchanged and returns false. Asking for
+  more than the declared maximum is an error.
+  */
+  synchronized boolean request(int pid, int[] amount) {
+    checkPid(pid);
+    for (int i = 0; i < resourceCount; i++) {
+      if (held[pid][i] + amount[i] > max[pid][i]) {
+        throw new IllegalArgumentException("Process " + pid + " requested more than its maximum of R" + (i + 1) + ".");
+      }
+      if (amount[i] > available[i]) {
+        return false; // Has to wait until resources are released
+      }
+    }
+    if (safe && prefixFits(position[pid], amount)) {
+      apply(pid, amount, 1);
+      for (int i = 0; i < resourceCount; i++) {
+        if (amount[i] != 0) {
+          add(i, 1, 0, treeSize, position[pid], -amount[i]);
+        }
+      }
+      return true;
+    }
+    apply(pid, amount, 1);
+    if (fullCheck()) {
+      safe = true;
+      return true;
+    }
+    apply(pid, amount, -1); // Unsafe, roll the allocation back
+    return false;
+  }
+
+  // Returns resources held by a process to the system
+  synchronized void release(int pid, int[] amount) {
+    checkPid(pid);
+    for (int i = 0; i < resourceCount; i++) {
+      if (amount[i] > held[pid][i]) {
+        throw new IllegalArgumentException("Process " + pid + " released more R" + (i + 1) + " than it holds.");
+      }
+    }
+    apply(pid, amount, -1);
+    if (safe) {
+      for (int i = 0; i < resourceCount; i++) {
+        if (amount[i] != 0) {
+          add(i, 1, 0, treeSize, position[pid], amount[i]);
+        }
+      }
+    } else {
+      safe = fullCheck();
+    }
+  }
+
+  synchronized boolean isSafe() {
+    return safe;
+  }
+
+  // Returns a copy of the stored safe sequence (pids), only meaningful while isSafe()
+  synchronized int[] safeSequence() {
+    return Arrays.copyOf(sequence, sequenceLength);
+  }
+
+  synchronized int[] getAvailable() {
+    return available.clone();
+  }
+
+  synchronized int[] getHeld(int pid) {
+    checkPid(pid);
+    return held[pid].clone();
+  }
+
+  synchronized int[] getNeed(int pid) {
+    checkPid(pid);
+    int[] need = new int[resourceCount];
+    for (int i = 0; i < resourceCount; i++) {
+      need[i] = max[pid][i] - held[pid][i];
+    }
+    return need;
+  }
+
+  private void checkPid(int pid) {
+    if (pid < 0 || pid >= processCount || max[pid] == null) {
+      throw new IllegalArgumentException("Unknown process " + pid + ".");
+    }
+  }
+
+  private void apply(int pid, int[] amount, int sign) {
+    for (int i = 0; i < resourceCount; i++) {
+      held[pid][i] += sign * amount[i];
+      available[i] -= sign * amount[i];
+    }
+  }
+
+  private boolean canRun(int pid, int[] work) {
+    for (int i = 0; i < resourceCount; i++) {
+      if ((max[pid][i] - held[pid][i]) > work[i]) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  // True when every process ahead of position k still fits after amount is taken away
+  private boolean prefixFits(int k, int[] amount) {
+    for (int i = 0; i < resourceCount; i++) {
+      if (amount[i] != 0 && min(i, 1, 0, treeSize, k) < amount[i]) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  // Standard safety check, rebuilding the stored sequence when it succeeds
+  private boolean fullCheck() {
+    int[] work = available.clone();
+    boolean[] done = new boolean[processCount];
+    int[] order = new int[sequence.length];
+    int length = 0;
+    boolean progress = true;
+    while (progress && length < sequenceLength) {
+      progress = false;
+      for (int k = 0; k < sequenceLength; k++) {
+        int q = sequence[k];
+        if (!done[q] && canRun(q, work)) {
+          done[q] = true;
+          order[length++] = q;
+          for (int i = 0; i < resourceCount; i++) {
+            work[i] += held[q][i];
+          }
+          progress = true;
+        }
+      }
+    }
+    if (length < sequenceLength) {
+      return false;
+    }
+    sequence = order;
+    for (int k = 0; k < length; k++) {
+      position[order[k]] = k;
+    }
+    rebuildSlack();
+    return true;
+  }
+
+  // Recomputes the slack of every position of the stored sequence, O(N * M)
+  private void rebuildSlack() {
+    int size = 1;
+    while (size < Math.max(sequenceLength, 1)) {
+      size *= 2;
+    }
+    if (size != treeSize) {
+      treeSize = size;
+      slackMin = new int[resourceCount][2 * size];
+      slackAdd = new int[resourceCount][2 * size];
+    }
+    int[] work = available.clone();
+    for (int i = 0; i < resourceCount; i++) {
+      Arrays.fill(slackAdd[i], 0);
+      Arrays.fill(slackMin[i], size, 2 * size, NO_LIMIT);
+    }
+    for (int k = 0; k < sequenceLength; k++) {
+      int q = sequence[k];
+      for (int i = 0; i < resourceCount; i++) {
+        slackMin[i][size + k] = work[i] - (max[q][i] - held[q][i]);
+        work[i] += held[q][i];
+      }
+    }
+    for (int i = 0; i < resourceCount; i++) {
+      for (int node = size - 1; node > 0; node--) {
+        slackMin[i][node] = Math.min(slackMin[i][2 * node], slackMin[i][2 * node + 1]);
+      }
+    }
+  }
+
+  // Sets the slack of position k, allowing for additions still pending on its ancestors
+  private void setLeaf(int r, int k, int value) {
+    int pending = 0;
+    for (int node = (treeSize + k) / 2; node > 0; node /= 2) {
+      pending += slackAdd[r][node];
+    }
+    slackMin[r][treeSize + k] = value - pending;
+    for (int node = (treeSize + k) / 2; node > 0; node /= 2) {
+      slackMin[r][node] = Math.min(slackMin[r][2 * node], slackMin[r][2 * node + 1]) + slackAdd[r][node];
+    }
+  }
+
+  // Adds delta to the slack of positions [0, end) in the tree of resource r
+  private void add(int r, int node, int low, int high, int end, int delta) {
+    if (end <= low || delta == 0) {
+      return;
+    }
+    if (high <= end) {
+      slackMin[r][node] += delta;
+      slackAdd[r][node] += delta;
+      return;
+    }
+    int middle = (low + high) / 2;
+    add(r, 2 * node, low, middle, end, delta);
+    add(r, 2 * node + 1, middle, high, end, delta);
+    slackMin[r][node] = Math.min(slackMin[r][2 * node], slackMin[r][2 * node + 1]) + slackAdd[r][node];
+  }
+
+  // Minimum slack of positions [0, end) in the tree of resource r
+  private int min(int r, int node, int low, int high, int end) {
+    if (end <= low) {
+      return NO_LIMIT;
+    }
+    if (high <= end) {
+      return slackMin[r][node];
+    }
+    int middle = (low + high) / 2;
+    return Math.min(min(r, 2 * node, low, middle, end), min(r, 2 * node + 1, middle, high, end)) + slackAdd[r][node];
+  }
+}
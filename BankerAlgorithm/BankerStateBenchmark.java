@@ -0,0 +1,74 @@
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicLong;
+
+/*
+Throughput benchmark for BankerState. Several threads share one state and
+keep issuing random requests followed by releases of whatever was granted
+(each thread works on its own subset of processes so needs stay consistent),
+then the total number of operations per second is printed.
+
+Usage: java BankerStateBenchmark [threads] [processes] [resources] [seconds]
+*/
+class BankerStateBenchmark {
+
+  public static void main(String[] args) throws InterruptedException {
+    int requestedThreads = args.length > 0 ? Integer.parseInt(args[0]) : Runtime.getRuntime().availableProcessors();
+    int processNo = args.length > 1 ? Integer.parseInt(args[1]) : 1000;
+    int resourceNo = args.length > 2 ? Integer.parseInt(args[2]) : 16;
+    int seconds = args.length > 3 ? Integer.parseInt(args[3]) : 5;
+    if (processNo < 1) {
+      throw new IllegalArgumentException("At least one process is required.");
+    }
+    int threads = Math.min(requestedThreads, processNo); // Every thread needs a process of its own
+
+    Random setup = new Random(412);
+    int[] totalResources = new int[resourceNo];
+    for (int i = 0; i < resourceNo; i++) {
+      totalResources[i] = Math.max(processNo * 2, 8); // Enough slack that most requests are granted, and at least the largest max
+    }
+    BankerState state = new BankerState(totalResources);
+    for (int p = 0; p < processNo; p++) {
+      int[] pMax = new int[resourceNo];
+      for (int i = 0; i < resourceNo; i++) {
+        pMax[i] = 1 + setup.nextInt(8);
+      }
+      state.addProcess(pMax);
+    }
+
+    AtomicLong requests = new AtomicLong();
+    AtomicLong granted = new AtomicLong();
+    long deadline = System.nanoTime() + seconds * 1_000_000_000L;
+    Thread[] workers = new Thread[threads];
+    for (int t = 0; t < threads; t++) {
+      int owner = t;
+      workers[t] = new Thread(() -> {
+        Random random = new Random(owner);
+        int[] amount = new int[resourceNo];
+        long localRequests = 0;
+        long localGranted = 0;
+        while (System.nanoTime() < deadline) {
+          int pid = owner + threads * random.nextInt((processNo - 1 - owner) / threads + 1); // Each thread owns its own pids
+          int[] need = state.getNeed(pid);
+          for (int i = 0; i < resourceNo; i++) {
+            amount[i] = need[i] == 0 ? 0 : random.nextInt(need[i] + 1);
+          }
+          localRequests += 1;
+          if (state.request(pid, amount)) {
+            localGranted += 1;
+            state.release(pid, amount);
+          }
+        }
+        requests.addAndGet(localRequests);
+        granted.addAndGet(localGranted);
+      });
+      workers[t].start();
+    }
+    for (Thread worker: workers) {
+      worker.join();
+    }
+
+    System.out.printf("%d threads, %d processes, %d resources%n", threads, processNo, resourceNo);
+    System.out.printf("%d requests (%d granted) in %d s: %.0f requests/sec%n", requests.get(), granted.get(), seconds,
+      requests.get() / (double) seconds);
+  }
+}
@@ -0,0 +1,94 @@
+import java.util.ArrayList;
+import java.util.Random;
+import java.util.function.LongSupplier;
+
+/*
+Entry point used by the JMH module in benchmarks/. The engines live in the
+default package and are package-private, which JMH benchmarks (they must be
+in a named package) cannot reference, so this public class builds a
+generated instance and hands back a LongSupplier that runs one engine over
+it. The benchmark resolves create once per trial, the measured calls only go
+through the LongSupplier.
+
+Instances are generated from a seed: every process holds 0-3 of each
+resource and needs 0-4 more. slack scales the available resources relative
+to the largest need of each resource, so slack >= 1 lets every ordering run
+and smaller values prune more of the tree.
+*/
+public class BenchmarkEngines {
+
+  /*
+  Returns a supplier that runs the named engine once and returns its result:
+  the number of safe sequences for backtrack, memo, inplace, parallel, serial
+  and prune, the number of nodes explored for inplace-nodes, 1 when a first
+  solution was found for inplace-first, and the length of the sequence for
+  single.
+  */
+  public static LongSupplier create(String engine, int processNo, int resourceNo, double slack, long seed) {
+    Random random = new Random(seed);
+    Process[] processArray = new Process[processNo];
+    int[] largestNeed = new int[resourceNo];
+    for (int p = 0; p < processNo; p++) {
+      int[] pHeld = new int[resourceNo];
+      int[] pMax = new int[resourceNo];
+      for (int r = 0; r < resourceNo; r++) {
+        pHeld[r] = random.nextInt(4);
+        pMax[r] = pHeld[r] + random.nextInt(5);
+        largestNeed[r] = Math.max(largestNeed[r], pMax[r] - pHeld[r]);
+      }
+      processArray[p] = new Process(pHeld, pMax, p, resourceNo);
+    }
+    int[] available = new int[resourceNo];
+    for (int r = 0; r < resourceNo; r++) {
+      available[r] = (int) Math.round(slack * largestNeed[r]);
+    }
+
+    switch (engine) {
+      case "backtrack":
+        return () -> {
+          Main.allSolutions = 0;
+          Main.sink = new SolutionSink.CountOnly();
+          ArrayList < Process > processList = new ArrayList < Process > ();
+          for (Process p: processArray) {
+            processList.add(p);
+          }
+          Main.backtrack(available.clone(), processList, new ArrayList < Process > ());
+          return Main.allSolutions;
+        };
+      case "memo":
+        return () -> new SafeSequenceMemo(processArray, processNo, available, resourceNo).countSolutions();
+      case "inplace": {
+        InPlaceSafeSearch search = new InPlaceSafeSearch(processArray, processNo, available, resourceNo);
+        return () -> search.search(null);
+      }
+      case "inplace-nodes": {
+        InPlaceSafeSearch search = new InPlaceSafeSearch(processArray, processNo, available, resourceNo);
+        return () -> {
+          long before = search.getNodes();
+          search.search(null);
+          return search.getNodes() - before;
+        };
+      }
+      case "inplace-first": {
+        InPlaceSafeSearch search = new InPlaceSafeSearch(processArray, processNo, available, resourceNo);
+        return () -> search.search(null, 1);
+      }
+      case "parallel":
+      case "serial": {
+        boolean parallel = engine.equals("parallel");
+        return () -> ParallelSafeSearch.search(processArray, processNo, available, resourceNo, parallel, null);
+      }
+      case "prune":
+        return () -> new SymmetricSafeCount(processArray, processNo, available, resourceNo).countSolutions().longValue();
+      case "single": {
+        BankerModel model = BankerModel.fromProcesses(processArray, processNo, available, resourceNo);
+        return () -> {
+          int[] order = model.findSafeSequence();
+          return order == null ? 0 : order.length;
+        };
+      }
+      default:
+        throw new IllegalArgumentException("Unknown engine " + engine + ".");
+    }
+  }
+}
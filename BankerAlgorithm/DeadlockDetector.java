@@ -0,0 +1,111 @@
+import java.util.Arrays;
+
+/*
+Deadlock detection by reducing the resource-allocation graph. Unlike the
+Banker's safety check, which uses each process's remaining maximum need, this
+uses what each process is requesting right now (the Q lines of the input). A
+process whose request fits in the available resources can finish and release
+everything it holds; whatever cannot be reduced this way is deadlocked.
+
+Every resource keeps a work queue of the processes waiting on it, sorted by
+the amount requested, and a pointer to the first one that does not fit yet.
+A process only counts the resources it is still waiting on. When a finished
+process releases resource r, only the queue of r is advanced, so each process
+is looked at once per resource it waits on. The whole reduction takes
+O(N * M * log N) (the log from sorting the queues) instead of the O(N^2 * M)
+of repeatedly scanning every process.
+*/
+class DeadlockDetector {
+  private final int processCount;
+  private final int resourceCount;
+  private final int[] available;
+  private final int[] held; // held[p * M + r]
+  private final int[] request; // request[p * M + r]
+
+  DeadlockDetector(int processNo, int resourceNo, int[] currentResources, int[] heldMatrix, int[] requestMatrix) {
+    processCount = processNo;
+    resourceCount = resourceNo;
+    available = currentResources.clone();
+    held = heldMatrix;
+    request = requestMatrix;
+  }
+
+  static DeadlockDetector fromInput(BankerInput input) {
+    return new DeadlockDetector(input.processCount, input.resourceCount, input.currentResources(), input.held,
+      input.request);
+  }
+
+  // Returns the indexes of the deadlocked processes in ascending order, empty when there is no deadlock
+  int[] findDeadlocked() {
+    int n = processCount;
+    int m = resourceCount;
+    int[] work = available.clone();
+    int[] waitingOn = new int[n]; // Resources whose request does not fit yet, per process
+    int[] ready = new int[n];
+    int tail = 0;
+
+    // Build the per-resource queues of waiting processes, sorted by request
+    int[] queueStart = new int[m + 1];
+    for (int p = 0; p < n; p++) {
+      for (int r = 0; r < m; r++) {
+        if (request[p * m + r] > work[r]) {
+          waitingOn[p] += 1;
+          queueStart[r + 1] += 1;
+        }
+      }
+    }
+    for (int r = 0; r < m; r++) {
+      queueStart[r + 1] += queueStart[r];
+    }
+    long[] queues = new long[queueStart[m]]; // (request << 32 | p), so sorting orders by request
+    int[] fill = Arrays.copyOf(queueStart, m);
+    for (int p = 0; p < n; p++) {
+      if (waitingOn[p] == 0) {
+        ready[tail++] = p;
+      }
+      for (int r = 0; r < m; r++) {
+        if (request[p * m + r] > work[r]) {
+          queues[fill[r]++] = ((long) request[p * m + r] << 32) | p;
+        }
+      }
+    }
+    for (int r = 0; r < m; r++) {
+      Arrays.sort(queues, queueStart[r], queueStart[r + 1]);
+    }
+
+    // Reduce the graph, waking only the queues of released resources
+    int[] pointer = Arrays.copyOf(queueStart, m);
+    boolean[] finished = new boolean[n];
+    int head = 0;
+    while (head < tail) {
+      int p = ready[head++];
+      finished[p] = true;
+      for (int r = 0; r < m; r++) {
+        int amount = held[p * m + r];
+        if (amount == 0) {
+          continue;
+        }
+        work[r] += amount;
+        int k = pointer[r];
+        while (k < queueStart[r + 1] && (queues[k] >>> 32) <= work[r]) {
+          int q = (int) queues[k];
+          waitingOn[q] -= 1;
+          if (waitingOn[q] == 0) {
+            ready[tail++] = q;
+          }
+          k++;
+        }
+        pointer[r] = k;
+      }
+    }
+
+    int[] deadlocked = new int[n - tail];
+    int count = 0;
+    for (int p = 0; p < n; p++) {
+      if (!finished[p]) {
+        deadlocked[count++] = p;
+      }
+    }
+    return deadlocked;
+  }
+}
@@ -0,0 +1,116 @@
+/*
+Allocation-free version of Main.backtrack. The whole search works on one
+available vector and a handful of primitive stacks that are allocated once:
+running a process adds its held resources to the available vector and
+backing up subtracts them again. Need and held values are copied into
+flattened N*M arrays so the inner loop does not touch the Process objects.
+*/
+class InPlaceSafeSearch {
+  private final int processCount;
+  private final int resourceCount;
+  private final int[] need; // need[p * M + r] = max - held for process p and resource r
+  private final int[] held; // held[p * M + r]
+  private final int[] available;
+  private final int[] order; // Permutation / undo stack, order[d] = process run at depth d
+  private final int[] nextCandidate; // First process still to try at each depth
+  private final boolean[] finished;
+  private long nodes = 0;
+
+  InPlaceSafeSearch(Process[] processArray, int processNo, int[] currentResources, int resourceNo) {
+    processCount = processNo;
+    resourceCount = resourceNo;
+    need = new int[processNo * resourceNo];
+    held = new int[processNo * resourceNo];
+    for (int p = 0; p < processNo; p++) {
+      processArray[p].copyNeed(need, p * resourceNo);
+      System.arraycopy(processArray[p].getHeldResources(), 0, held, p * resourceNo, resourceNo);
+    }
+    available = currentResources.clone();
+    order = new int[processNo];
+    nextCandidate = new int[processNo + 1];
+    finished = new boolean[processNo];
+  }
+
+  // Same test as Process.canRun, against the flattened need matrix
+  private boolean canRun(int p) {
+    int base = p * resourceCount;
+    for (int i = 0; i < resourceCount; i++) {
+      if (need[base + i] > available[i]) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  private void apply(int p, int sign) {
+    int base = p * resourceCount;
+    for (int i = 0; i < resourceCount; i++) {
+      available[i] += sign * held[base + i];
+    }
+  }
+
+  /*
+  Counts every safe sequence. When sink is not null it is given the shared
+  order array for each solution (sinks copy what they keep), and the search
+  stops as soon as the sink is full.
+  */
+  long search(SolutionSink sink) {
+    return search(sink, Long.MAX_VALUE);
+  }
+
+  // Same as search(sink), but also stops once limit solutions have been found
+  long search(SolutionSink sink, long limit) {
+    long solutions = 0;
+    if (processCount == 0) {
+      return 0; // Matches backtrack, which reports no solutions for an empty process list
+    }
+    int depth = 0;
+    nextCandidate[0] = 0;
+    while (true) {
+      if (depth == processCount) {
+        solutions += 1;
+        if (sink != null) {
+          sink.accept(order);
+        }
+        if (solutions == limit || sink != null && sink.isFull()) {
+          while (depth > 0) {
+            depth = undo(depth); // Leave the arrays ready for the next search
+          }
+          return solutions;
+        }
+        depth = undo(depth);
+        continue;
+      }
+      int p = nextCandidate[depth];
+      while (p < processCount && (finished[p] || !canRun(p))) {
+        p++;
+      }
+      if (p < processCount) {
+        nextCandidate[depth] = p + 1;
+        order[depth] = p;
+        finished[p] = true;
+        apply(p, 1);
+        nodes += 1;
+        depth += 1;
+        nextCandidate[depth] = 0;
+      } else if (depth == 0) {
+        return solutions; // Every branch from the root has been explored
+      } else {
+        depth = undo(depth);
+      }
+    }
+  }
+
+  // Rolls back the process run at depth - 1 and returns the new depth
+  private int undo(int depth) {
+    int p = order[depth - 1];
+    finished[p] = false;
+    apply(p, -1);
+    return depth - 1;
+  }
+
+  // Number of processes run (tree nodes entered) by the last searches
+  long getNodes() {
+    return nodes;
+  }
+}
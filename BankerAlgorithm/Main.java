@@ -1,98 +1,235 @@
 import java.util.Scanner;
 import java.io.*;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.math.BigInteger;
+import java.nio.file.Paths;
 
 /*
 Reads local file defining resources and processes, then calculates and
 prints solution using the Banker's Algorithm, backtracking to ensure
 all possible solutions were found. A single test case is provided for
-this exercise, however, new test cases may be added locally.
+this exercise, however, new test cases may be added locally. The file
+can be given as the first argument (java Main test.txt), otherwise it is
+asked for.
+
+Run with --memo to count and list solutions with the memoized search in
+SafeSequenceMemo, or with --parallel / --serial to use the fork/join search in
+ParallelSafeSearch, or with --inplace for the allocation-free search in
+InPlaceSafeSearch. --single prints one safe sequence using the BankerModel
+fast path, which is meant for large instances, and --prune counts all
+solutions over classes of identical processes (SymmetricSafeCount).
+--detect lists the processes that are deadlocked on their current requests
+(Q lines, see BankerInput) using DeadlockDetector.
+Sequences are written to the SolutionSink chosen with
+--sink=text|count|binary:FILE|first:K|sample:K (--count-only is the same as
+--sink=count).
 */
 class Main {
-  public static final int MAX_PROCESSES = 9; // Defined by assignment (N < 10)
-  public static final int MAX_RESOURCES = 9; // Defined by assignment (M < 10)
-  static int allSolutions = 0;
+  static long allSolutions = 0;
+  static SolutionSink sink = new SolutionSink.CountOnly(); // Receives each sequence found by backtrack
 
   public static void main(String[] args) {
-    String fileName, line;
+    String fileName = firstArgument(args);
 
-    Scanner console = new Scanner(System.in); // Initialize Scanner to read user input
-    System.out.printf("Please enter the name of the file you wish to use (e.g. test.txt): ");
-    fileName = console.nextLine(); // Get user input from console
-    console.close(); // Close scanner
+    if (fileName == null) {
+      Scanner console = new Scanner(System.in); // Initialize Scanner to read user input
+      System.out.printf("Please enter the name of the file you wish to use (e.g. test.txt): ");
+      fileName = console.nextLine(); // Get user input from console
+      console.close(); // Close scanner
+    }
 
-    FileReader f = null; // Initialize FileReader
+    BankerInput input;
 
     try {
-      f = new FileReader(fileName); // Attempt to ingest file
-    } catch (FileNotFoundException e) {
-      System.out.println(e); // Catch and print exception upon failure
-    }
-
-    Scanner file = new Scanner(f); // Initialize scanner to read file
-    int[] resourceArray = new int[MAX_RESOURCES]; // Initialize resourceArray to MAX_RESOURCES
-    int currentResource = 0; // Set current resource to 0
-    Process[] processArray = new Process[MAX_PROCESSES]; // Initialize processArray to MAX_PROCESSES
-    int processNo = 0; // Initialize process number to 0
-
-    while (file.hasNextLine()) {
-      line = file.nextLine(); // Read each line in file
-      if ((line.length() > 0) && (line.charAt(0) == 'R')) {
-        line = line.substring(4); // Recognize file format (R = resource)
-        if (line.charAt(0) == ' ') {
-          line = line.substring(1);
-        }
-        resourceArray[currentResource] = Integer.parseInt(line); // Populate resourceArray from file
-        currentResource += 1;
-      }
-      if ((line.length() > 0) && (line.charAt(0) == 'P')) {
-        line = line.replaceAll("[^\\d]", " "); // Remove unnecessary characters
-        int[] pHeld = new int[MAX_RESOURCES];
-        int[] pMax = new int[MAX_RESOURCES];
-        Scanner p = new Scanner(line); // Initialize Scanner for next section of file
-        p.nextInt(); // Remove unnecessary characters
-        for (int i = 0; i < currentResource; i++) {
-          pHeld[i] = p.nextInt();
-        }
-        for (int i = 0; i < currentResource; i++) {
-          pMax[i] = p.nextInt();
+      input = BankerInput.load(Paths.get(fileName)); // Attempt to ingest file
+    } catch (IOException e) {
+      System.out.println(e); // Catch and print exception (with line number for malformed input) upon failure
+      return;
+    }
+
+    int currentResource = input.resourceCount;
+    int processNo = input.processCount;
+    int[] currentResourceArray = input.currentResources(); // Calculate starting resources
+
+    // Report the processes that are deadlocked on their current requests
+    if (hasOption(args, "--detect")) {
+      int[] deadlocked = DeadlockDetector.fromInput(input).findDeadlocked();
+      if (deadlocked.length == 0) {
+        System.out.println("\nNo deadlock detected.");
+      } else {
+        System.out.printf("\nDeadlocked processes: ");
+        for (int p: deadlocked) {
+          System.out.printf("P" + Integer.toString(p + 1) + " ");
         }
-        processArray[processNo] = new Process(pHeld, pMax, processNo, currentResource);
-        processNo += 1;
+        System.out.println();
       }
+      return;
     }
 
-    file.close(); // Close file
-
-    // Calculate starting resources
-    int[] currentResourceArray = resourceArray.clone();
-    for (int i = 0; i < processNo; i++) {
-      int[] pa = processArray[i].getHeldResources();
-      for (int j = 0; j < currentResource; j++) {
-        currentResourceArray[j] -= pa[j];
+    // Find a single safe sequence without enumerating them all
+    if (hasOption(args, "--single")) {
+      int[] order = BankerModel.fromInput(input).findSafeSequence();
+      if (order == null) {
+        System.out.println("\nUh-oh. The state is unsafe, no safe sequence exists.");
+      } else {
+        System.out.println("\nSafe sequence: \n");
+        SolutionSink.Text text = new SolutionSink.Text(new BufferedWriter(new OutputStreamWriter(System.out)));
+        text.accept(order);
+        try {
+          text.close();
+        } catch (IOException e) {
+          System.out.println(e);
+        }
       }
+      return;
     }
 
     // Create ArrayLists for the backtracking
+    Process[] processArray = input.toProcesses();
     ArrayList < Process > processList = new ArrayList < Process > ();
     ArrayList < Process > hist = new ArrayList < Process > ();
     for (int i = 0; i < processNo; i++) {
       processList.add(processArray[i]);
     }
 
+    // Count solutions over classes of identical processes, without listing them
+    if (hasOption(args, "--prune")) {
+      SymmetricSafeCount symmetric = new SymmetricSafeCount(processArray, processNo, currentResourceArray, currentResource);
+      BigInteger total = symmetric.countSolutions();
+      System.out.println("\n" + processNo + " processes in " + symmetric.getClassCount() + " classes, "
+        + symmetric.getNodes() + " search nodes explored.");
+      if (total.signum() == 0) {
+        System.out.println("\nUh-oh. No solutions were found.");
+      } else {
+        System.out.println("\n" + total + " solution" + (total.equals(BigInteger.ONE) ? "" : "s") + " found.");
+      }
+      return;
+    }
+
     // Calculate all solutions
+    try {
+      sink = createSink(args);
+    } catch (IOException e) {
+      System.out.println(e); // Catch and print exception if the output file cannot be opened
+      return;
+    } catch (NumberFormatException e) {
+      System.out.println("Uh-oh. Use --sink=first:K or --sink=sample:K with a whole number K of at least 1.");
+      return;
+    }
     System.out.println("\nSolutions: \n");
-    backtrack(currentResourceArray, processList, hist); // Backtrack through algorithm to calculate all possible solutions
+    boolean countOnly = sink instanceof SolutionSink.CountOnly;
+    if (hasOption(args, "--memo")) {
+      if (processNo > SafeSequenceMemo.MAX_MEMO_PROCESSES) {
+        System.out.println("\nUh-oh. --memo supports at most " + SafeSequenceMemo.MAX_MEMO_PROCESSES
+          + " processes, use --prune to count larger instances.");
+        return;
+      }
+      SafeSequenceMemo memo = new SafeSequenceMemo(processArray, processNo, currentResourceArray, currentResource);
+      allSolutions = memo.countSolutions(); // Count first using the finished-set table
+      if (!countOnly) {
+        Iterator < int[] > sequences = memo.sequences();
+        while (sequences.hasNext() && !sink.isFull()) {
+          sink.accept(sequences.next());
+        }
+      }
+    } else if (hasOption(args, "--parallel") || hasOption(args, "--serial")) {
+      if (hasOption(args, "--parallel") && !ParallelSafeSearch.isForked(true, countOnly ? null : sink)) {
+        System.out.println("Note: --parallel only forks when counting (--count-only), the sequences are listed by one"
+          + " serial pass.\n");
+      }
+      allSolutions = ParallelSafeSearch.search(processArray, processNo, currentResourceArray, currentResource,
+        hasOption(args, "--parallel"), countOnly ? null : sink); // Fork/join count, or one in-order pass that streams to the sink
+    } else if (hasOption(args, "--inplace")) {
+      InPlaceSafeSearch search = new InPlaceSafeSearch(processArray, processNo, currentResourceArray, currentResource);
+      allSolutions = search.search(countOnly ? null : sink);
+    } else {
+      backtrack(currentResourceArray, processList, hist); // Backtrack through algorithm to calculate all possible solutions
+    }
+    try {
+      sink.close(); // Flush buffered sequences before printing the total
+    } catch (IOException e) {
+      System.out.println(e);
+    }
 
-    if (allSolutions == 0) {
+    if (sink.isFull() && !hasOption(args, "--memo")) {
+      System.out.println("\nStopped after the first " + Long.toString(allSolutions) + " solution"
+        + (allSolutions > 1 ? "s" : "") + ", the total was not counted."); // The memo count is complete either way
+    } else if (allSolutions == 0) {
       System.out.println("\nUh-oh. No solutions were found.");
     } else {
-      System.out.println("\n" + Integer.toString(allSolutions) + " solution" + (allSolutions > 1 ? "s" : "") + " found."); // Print total number of solutions, append 's' if more than one
+      System.out.println("\n" + Long.toString(allSolutions) + " solution" + (allSolutions > 1 ? "s" : "") + " found."); // Print total number of solutions, append 's' if more than one
+    }
+  }
+
+  static boolean hasOption(String[] args, String option) {
+    for (String arg: args) {
+      if (arg.equals(option)) {
+        return true;
+      }
     }
+    return false;
+  }
+
+  // Returns the first argument that is not an option (the input file), or null if there is none
+  static String firstArgument(String[] args) {
+    for (String arg: args) {
+      if (!arg.startsWith("--")) {
+        return arg;
+      }
+    }
+    return null;
+  }
+
+  // Returns the value of an option given as name=value, or null if it is missing
+  static String getOption(String[] args, String name) {
+    for (String arg: args) {
+      if (arg.startsWith(name + "=")) {
+        return arg.substring(name.length() + 1);
+      }
+    }
+    return null;
+  }
+
+  /*
+  Builds the solution sink selected with --sink=MODE, where MODE is one of
+  text (default), count, binary:FILE, first:K or sample:K. --count-only is
+  kept as a shorthand for --sink=count. A K that is not a whole number of
+  at least 1 throws NumberFormatException.
+  */
+  static SolutionSink createSink(String[] args) throws IOException {
+    String mode = getOption(args, "--sink");
+    if (mode == null) {
+      mode = hasOption(args, "--count-only") ? "count" : "text";
+    }
+    SolutionSink text = new SolutionSink.Text(new BufferedWriter(new OutputStreamWriter(System.out), 1 << 16));
+    if (mode.equals("count")) {
+      return new SolutionSink.CountOnly();
+    } else if (mode.startsWith("binary:")) {
+      return new SolutionSink.Binary(Paths.get(mode.substring(7)));
+    } else if (mode.startsWith("first:")) {
+      return new SolutionSink.FirstK(text, parseLimit(mode.substring(6), Long.MAX_VALUE));
+    } else if (mode.startsWith("sample:")) {
+      return new SolutionSink.SampleK(text, (int) parseLimit(mode.substring(7), Integer.MAX_VALUE), 412L); // Fixed seed keeps samples reproducible
+    }
+    return text;
+  }
+
+  // Parses the K of first:K and sample:K, throwing NumberFormatException unless it is between 1 and max
+  static long parseLimit(String value, long max) {
+    long limit = Long.parseLong(value);
+    if (limit < 1 || limit > max) {
+      throw new NumberFormatException("The number of solutions must be between 1 and " + max + ".");
+    }
+    return limit;
   }
 
   static void backtrack(int[] currentResources, ArrayList < Process > processes, ArrayList < Process > hist) {
     for (Process p: processes) {
+      if (sink.isFull()) {
+        return; // The sink wants no more sequences, unwind the whole search
+      }
       if (p.canRun(currentResources) && (processes.size() > 1)) { // If the process can run and there are other processes on the list that need to be run
         int[] newResources = currentResources.clone();
         int[] proccessResources = p.getHeldResources();
@@ -107,11 +244,11 @@ class Main {
       } else if (p.canRun(currentResources)) { // Else this process can run and is last on the list
         hist.add(p);
         allSolutions += 1;
-        for (Process proc: hist) {
-          System.out.printf("P" + Integer.toString(proc.getNameAsInt() + 1) + " -> ");
+        int[] order = new int[hist.size()];
+        for (int i = 0; i < order.length; i++) {
+          order[i] = hist.get(i).getNameAsInt();
         }
-        System.out.printf("Done.");
-        System.out.println();
+        sink.accept(order);
       }
     }
   }
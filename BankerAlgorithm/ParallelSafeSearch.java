@@ -0,0 +1,126 @@
+import java.util.ArrayList;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+/*
+Counts safe sequences on a ForkJoinPool. The first levels of the search tree
+are split into one task per runnable process, deeper levels are searched
+serially inside each task, and every task keeps its own counter, so the count
+is identical to the serial backtrack on every run.
+
+When the sequences themselves are wanted, they are streamed to the sink from
+one depth-first walk in the calling thread, in the same order as backtrack,
+instead of being collected per task: nothing is held in memory however many
+sequences there are (a 12-process input can have 479M), and a single sink
+could not take them any faster from several threads.
+*/
+@SuppressWarnings("serial") // Tasks are never serialized
+class ParallelSafeSearch extends RecursiveTask < Long > {
+  public static final int DEFAULT_SPLIT_DEPTH = 3; // Levels of the tree that are forked into separate tasks
+
+  private final Process[] processes;
+  private final int processCount;
+  private final int resourceCount;
+  private final int[] available;
+  private final boolean[] finished;
+  private final int[] order;
+  private final int depth;
+  private final int splitDepth;
+  private final SolutionSink sink; // Null when only counting
+  private long count = 0;
+
+  private ParallelSafeSearch(Process[] processes, int processCount, int resourceCount, int[] available,
+    boolean[] finished, int[] order, int depth, int splitDepth, SolutionSink sink) {
+    this.processes = processes;
+    this.processCount = processCount;
+    this.resourceCount = resourceCount;
+    this.available = available;
+    this.finished = finished;
+    this.order = order;
+    this.depth = depth;
+    this.splitDepth = splitDepth;
+    this.sink = sink;
+  }
+
+  /*
+  Returns the number of safe sequences, counted in parallel on the common pool
+  or serially in the calling thread. If sink is not null every sequence is
+  also passed to it, in backtrack order, from the calling thread, and the
+  search is serial even when parallel is set (see isForked).
+  */
+  static long search(Process[] processArray, int processNo, int[] currentResources, int resourceNo,
+    boolean parallel, SolutionSink sink) {
+    if (processNo == 0) {
+      return 0; // Matches backtrack, which reports no solutions for an empty process list
+    }
+    boolean fork = isForked(parallel, sink);
+    ParallelSafeSearch root = new ParallelSafeSearch(processArray, processNo, resourceNo, currentResources.clone(),
+      new boolean[processNo], new int[processNo], 0, fork ? Math.min(DEFAULT_SPLIT_DEPTH, processNo) : 0, sink); // A full sequence is always counted by serial
+    return fork ? ForkJoinPool.commonPool().invoke(root) : root.compute();
+  }
+
+  // Whether search forks tasks: only when counting, sequences are streamed from one thread
+  static boolean isForked(boolean parallel, SolutionSink sink) {
+    return parallel && sink == null;
+  }
+
+  @Override
+  protected Long compute() {
+    if (depth >= splitDepth) {
+      serial(depth);
+      return count;
+    }
+
+    ArrayList < ParallelSafeSearch > children = new ArrayList < ParallelSafeSearch > ();
+    for (int p = 0; p < processCount; p++) {
+      if (!finished[p] && processes[p].canRun(available)) {
+        int[] childAvailable = available.clone();
+        int[] held = processes[p].getHeldResources();
+        for (int i = 0; i < resourceCount; i++) {
+          childAvailable[i] += held[i];
+        }
+        boolean[] childFinished = finished.clone();
+        childFinished[p] = true;
+        int[] childOrder = order.clone();
+        childOrder[depth] = p;
+        children.add(new ParallelSafeSearch(processes, processCount, resourceCount, childAvailable, childFinished,
+          childOrder, depth + 1, splitDepth, null));
+      }
+    }
+    invokeAll(children);
+    long total = 0;
+    for (ParallelSafeSearch child: children) {
+      total += child.join();
+    }
+    return total;
+  }
+
+  // Depth-first search below the split depth, working in place on this task's own arrays
+  private void serial(int level) {
+    if (sink != null && sink.isFull()) {
+      return; // Unwinds the rest of the walk once the sink wants no more sequences
+    }
+    if (level == processCount) {
+      count += 1;
+      if (sink != null) {
+        sink.accept(order); // Sinks copy what they keep
+      }
+      return;
+    }
+    for (int p = 0; p < processCount; p++) {
+      if (!finished[p] && processes[p].canRun(available)) {
+        int[] held = processes[p].getHeldResources();
+        for (int i = 0; i < resourceCount; i++) {
+          available[i] += held[i];
+        }
+        finished[p] = true;
+        order[level] = p;
+        serial(level + 1);
+        finished[p] = false;
+        for (int i = 0; i < resourceCount; i++) {
+          available[i] -= held[i];
+        }
+      }
+    }
+  }
+}
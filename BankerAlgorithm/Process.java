@@ -23,6 +23,13 @@ class Process {
     return Integer.toString(processNumber);
   }
 
+  // Writes max - held for each resource into dest starting at offset
+  void copyNeed(int[] dest, int offset) {
+    for (int i = 0; i < resources; i++) {
+      dest[offset + i] = maxResources[i] - heldResources[i];
+    }
+  }
+
   boolean canRun(int[] available) {
     for (int i = 0; i < resources; i++) {
       if ((maxResources[i] - heldResources[i]) > available[i]) {
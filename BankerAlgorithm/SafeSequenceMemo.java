@@ -0,0 +1,136 @@
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+/*
+Counts and lists safe sequences using dynamic programming over the set of
+finished processes. The available resources only depend on which processes
+have already run (not on the order they ran in), so every subset of finished
+processes is solved once and stored in a table indexed by a bitmask. Counting
+takes O(2^N * N * M) and listing never descends into a subtree that has no
+solutions.
+*/
+class SafeSequenceMemo {
+  // 20! < 2^63, so no count can overflow the long table, and 2^20 entries take 8 MB
+  public static final int MAX_MEMO_PROCESSES = 20;
+
+  private final Process[] processes;
+  private final int[] startResources;
+  private final int processCount;
+  private final int resourceCount;
+  private final int fullMask;
+  private final long[] ways; // Number of safe completions from each finished set, -1 = not computed yet
+
+  SafeSequenceMemo(Process[] processArray, int processNo, int[] currentResources, int resourceNo) {
+    if (processNo > MAX_MEMO_PROCESSES) {
+      throw new IllegalArgumentException("Memoized search supports at most " + MAX_MEMO_PROCESSES + " processes.");
+    }
+    processes = processArray;
+    processCount = processNo;
+    resourceCount = resourceNo;
+    startResources = currentResources.clone();
+    fullMask = (1 << processNo) - 1;
+    ways = new long[1 << processNo];
+    Arrays.fill(ways, -1);
+    ways[fullMask] = 1; // Every process has finished, exactly one way to complete
+  }
+
+  // Returns the total number of safe sequences (same value as Main.allSolutions)
+  long countSolutions() {
+    if (processCount == 0) {
+      return 0; // Matches backtrack, which reports no solutions for an empty process list
+    }
+    return count(0, startResources.clone());
+  }
+
+  private long count(int finished, int[] available) {
+    if (ways[finished] >= 0) {
+      return ways[finished];
+    }
+    long total = 0;
+    for (int p = 0; p < processCount; p++) {
+      int bit = 1 << p;
+      if ((finished & bit) == 0 && processes[p].canRun(available)) {
+        release(available, p, 1);
+        total += count(finished | bit, available);
+        release(available, p, -1); // Undo release before trying the next process
+      }
+    }
+    ways[finished] = total;
+    return total;
+  }
+
+  private void release(int[] available, int p, int sign) {
+    int[] held = processes[p].getHeldResources();
+    for (int i = 0; i < resourceCount; i++) {
+      available[i] += sign * held[i];
+    }
+  }
+
+  // Lists every safe sequence lazily, in the same order as Main.backtrack prints them
+  Iterator < int[] > sequences() {
+    countSolutions(); // Fill the table so dead subtrees can be skipped
+    return new Iterator < int[] > () {
+      private final int[] order = new int[processCount];
+      private final int[] available = startResources.clone();
+      private int depth = 0;
+      private int finished = 0;
+      private int nextCandidate = 0;
+      private int[] pending = advance();
+
+      @Override
+      public boolean hasNext() {
+        return pending != null;
+      }
+
+      @Override
+      public int[] next() {
+        if (pending == null) {
+          throw new NoSuchElementException();
+        }
+        int[] result = pending;
+        pending = advance();
+        return result;
+      }
+
+      // Depth-first walk that only enters children whose table entry is non-zero
+      private int[] advance() {
+        if (processCount == 0) {
+          return null;
+        }
+        while (true) {
+          if (depth == processCount) {
+            int[] result = order.clone();
+            backUp();
+            return result;
+          }
+          boolean descended = false;
+          for (int p = nextCandidate; p < processCount; p++) {
+            int bit = 1 << p;
+            if ((finished & bit) == 0 && processes[p].canRun(available) && ways[finished | bit] > 0) {
+              release(available, p, 1);
+              finished |= bit;
+              order[depth++] = p;
+              nextCandidate = 0;
+              descended = true;
+              break;
+            }
+          }
+          if (!descended) {
+            if (depth == 0) {
+              return null; // Every branch from the root has been listed
+            }
+            backUp();
+          }
+        }
+      }
+
+      private void backUp() {
+        int p = order[--depth];
+        finished &= ~(1 << p);
+        release(available, p, -1);
+        nextCandidate = p + 1;
+      }
+    };
+  }
+}
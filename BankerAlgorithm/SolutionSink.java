@@ -0,0 +1,169 @@
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Random;
+import java.util.function.Consumer;
+
+/*
+Destination for the safe sequences found by the search engines. The order
+array handed to accept may be reused by the caller, so sinks that keep a
+sequence must copy it. Write errors are rethrown as UncheckedIOException so
+a sink can be passed anywhere a Consumer < int[] > is expected. A sink that
+wants no more sequences says so through isFull, and the engines stop their
+search there.
+*/
+interface SolutionSink extends Consumer < int[] > {
+
+  // Flushes buffered output and releases any file the sink opened
+  void close() throws IOException;
+
+  // True once no further sequence would be used, so the search can stop
+  default boolean isFull() {
+    return false;
+  }
+
+  // Ignores every sequence, the caller only reports the count
+  static class CountOnly implements SolutionSink {
+    public void accept(int[] order) {}
+
+    public void close() {}
+  }
+
+  // Writes "P1 -> P2 -> ... Done." lines through one buffered writer
+  static class Text implements SolutionSink {
+    private final Writer writer;
+    private final StringBuilder line = new StringBuilder();
+
+    Text(Writer writer) {
+      this.writer = writer; // Caller owns the writer, close only flushes it
+    }
+
+    public void accept(int[] order) {
+      line.setLength(0);
+      for (int p: order) {
+        line.append('P').append(p + 1).append(" -> ");
+      }
+      line.append("Done.").append(System.lineSeparator());
+      try {
+        writer.append(line);
+      } catch (IOException e) {
+        throw new UncheckedIOException(e);
+      }
+    }
+
+    public void close() throws IOException {
+      writer.flush();
+    }
+  }
+
+  // Writes one byte per process index, so each sequence takes exactly N bytes
+  static class Binary implements SolutionSink {
+    private static final int BUFFER_SIZE = 1 << 16;
+
+    private final FileChannel channel;
+    private final ByteBuffer buffer = ByteBuffer.allocateDirect(BUFFER_SIZE);
+
+    Binary(Path path) throws IOException {
+      channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+        StandardOpenOption.TRUNCATE_EXISTING);
+    }
+
+    public void accept(int[] order) {
+      try {
+        if (buffer.remaining() < order.length) {
+          drain();
+        }
+        for (int p: order) {
+          if (p > 255) {
+            throw new IllegalStateException("Binary sink only encodes process indexes up to 255.");
+          }
+          buffer.put((byte) p);
+        }
+      } catch (IOException e) {
+        throw new UncheckedIOException(e);
+      }
+    }
+
+    private void drain() throws IOException {
+      buffer.flip();
+      while (buffer.hasRemaining()) {
+        channel.write(buffer);
+      }
+      buffer.clear();
+    }
+
+    public void close() throws IOException {
+      try {
+        drain();
+      } finally {
+        channel.close();
+      }
+    }
+  }
+
+  // Passes the first K sequences on to another sink and drops the rest
+  static class FirstK implements SolutionSink {
+    private final SolutionSink target;
+    private final long limit;
+    private long seen = 0;
+
+    FirstK(SolutionSink target, long limit) {
+      this.target = target;
+      this.limit = limit;
+    }
+
+    public void accept(int[] order) {
+      if (seen < limit) {
+        target.accept(order);
+      }
+      seen += 1;
+    }
+
+    public boolean isFull() {
+      return seen >= limit;
+    }
+
+    public void close() throws IOException {
+      target.close();
+    }
+  }
+
+  // Keeps a uniform random sample of K sequences (reservoir sampling) and passes it on when closed
+  static class SampleK implements SolutionSink {
+    private final SolutionSink target;
+    private final int limit;
+    private final Random random;
+    private final ArrayList < int[] > sample = new ArrayList < int[] > ();
+    private long seen = 0;
+
+    SampleK(SolutionSink target, int limit, long seed) {
+      this.target = target;
+      this.limit = limit;
+      random = new Random(seed);
+    }
+
+    public void accept(int[] order) {
+      seen += 1;
+      if (sample.size() < limit) {
+        sample.add(order.clone());
+      } else {
+        long slot = (long) (random.nextDouble() * seen);
+        if (slot < limit) {
+          System.arraycopy(order, 0, sample.get((int) slot), 0, order.length);
+        }
+      }
+    }
+
+    public void close() throws IOException {
+      for (int[] order: sample) {
+        target.accept(order);
+      }
+      target.close();
+    }
+  }
+}
@@ -0,0 +1,209 @@
+import java.math.BigInteger;
+import java.util.Arrays;
+import java.util.HashMap;
+
+/*
+Counts safe sequences without walking equivalent subtrees. Processes with the
+same need and held vectors are interchangeable, so they are grouped into
+classes and the search runs over class sequences; each class sequence stands
+for (c1! * c2! * ...) process orderings. Processes that need nothing and hold
+nothing can run at any point without changing anything, so they are left out
+of the search and put back with a falling factorial; this is only done when
+they can run from the start, that is when no resource is over-committed.
+
+Before descending into a child the search runs the greedy Banker's safety
+check on the remaining classes. Running a process never lowers the available
+resources, so the greedy check is exact: a child is only entered when at
+least one safe completion exists below it, and no dead subtree is explored.
+Results are memoized on the vector of remaining class counts (the available
+resources only depend on which processes have finished).
+*/
+class SymmetricSafeCount {
+  private final int classCount;
+  private final int resourceCount;
+  private final int[] classNeed; // classNeed[c * M + r]
+  private final int[] classHeld; // classHeld[c * M + r]
+  private final int[] remaining; // Processes of each class still to run
+  private final int[] available;
+  private final int freeCount; // Processes with zero need and zero held
+  private final int processCount;
+  private final int[] work; // Scratch vectors for canComplete, which never nests
+  private final boolean[] done;
+  private final long[] radix; // Mixed-radix weights for the memo key, null if the key does not fit in a long
+  private final HashMap < Long, BigInteger > memo = new HashMap < Long, BigInteger > ();
+  private long nodes = 0;
+
+  SymmetricSafeCount(Process[] processArray, int processNo, int[] currentResources, int resourceNo) {
+    resourceCount = resourceNo;
+    processCount = processNo;
+    available = Arrays.copyOf(currentResources, resourceNo);
+    HashMap < String, Integer > classOf = new HashMap < String, Integer > ();
+    int[] need = new int[resourceNo];
+    int[] needs = new int[processNo * resourceNo];
+    int[] helds = new int[processNo * resourceNo];
+    int[] counts = new int[processNo];
+    int classes = 0;
+    int free = 0;
+    for (int p = 0; p < processNo; p++) {
+      processArray[p].copyNeed(need, 0);
+      int[] held = Arrays.copyOf(processArray[p].getHeldResources(), resourceNo);
+      if (isZero(need) && isZero(held) && processArray[p].canRun(currentResources)) {
+        free += 1;
+        continue;
+      }
+      String key = Arrays.toString(need) + Arrays.toString(held);
+      Integer c = classOf.get(key);
+      if (c == null) {
+        c = classes++;
+        classOf.put(key, c);
+        System.arraycopy(need, 0, needs, c * resourceNo, resourceNo);
+        System.arraycopy(held, 0, helds, c * resourceNo, resourceNo);
+      }
+      counts[c] += 1;
+    }
+    classCount = classes;
+    freeCount = free;
+    classNeed = Arrays.copyOf(needs, classes * resourceNo);
+    classHeld = Arrays.copyOf(helds, classes * resourceNo);
+    remaining = Arrays.copyOf(counts, classes);
+    work = new int[resourceNo];
+    done = new boolean[classes];
+
+    long[] weights = new long[classes];
+    long product = 1;
+    for (int c = 0; c < classes && weights != null; c++) {
+      weights[c] = product;
+      if (product > Long.MAX_VALUE / (remaining[c] + 1)) {
+        weights = null; // Too many states to encode, search without the memo
+      } else {
+        product *= remaining[c] + 1;
+      }
+    }
+    radix = weights;
+  }
+
+  private static boolean isZero(int[] values) {
+    for (int v: values) {
+      if (v != 0) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  int getClassCount() {
+    return classCount;
+  }
+
+  // Search nodes entered by the last count
+  long getNodes() {
+    return nodes;
+  }
+
+  // Exact number of safe process orderings (same value as Main.allSolutions)
+  BigInteger countSolutions() {
+    nodes = 0;
+    memo.clear();
+    if (processCount == 0) {
+      return BigInteger.ZERO; // Matches backtrack, which reports no solutions for an empty process list
+    }
+    if (!canComplete()) {
+      return BigInteger.ZERO;
+    }
+    BigInteger total = count(processCount - freeCount);
+    for (int c = 0; c < classCount; c++) {
+      total = total.multiply(factorial(remaining[c])); // Members of a class can swap places freely
+    }
+    for (int k = 0; k < freeCount; k++) {
+      total = total.multiply(BigInteger.valueOf(processCount - k)); // Free processes go anywhere among the others
+    }
+    return total;
+  }
+
+  private static BigInteger factorial(int n) {
+    BigInteger result = BigInteger.ONE;
+    for (int k = 2; k <= n; k++) {
+      result = result.multiply(BigInteger.valueOf(k));
+    }
+    return result;
+  }
+
+  // Number of safe class sequences for the processes still remaining
+  private BigInteger count(int left) {
+    if (left == 0) {
+      return BigInteger.ONE;
+    }
+    long key = 0;
+    if (radix != null) {
+      for (int c = 0; c < classCount; c++) {
+        key += radix[c] * remaining[c];
+      }
+      BigInteger known = memo.get(key);
+      if (known != null) {
+        return known;
+      }
+    }
+    nodes += 1;
+    BigInteger total = BigInteger.ZERO;
+    for (int c = 0; c < classCount; c++) {
+      if (remaining[c] > 0 && fits(c, available)) {
+        apply(c, 1);
+        if (canComplete()) { // Prune children with no safe completion
+          total = total.add(count(left - 1));
+        }
+        apply(c, -1);
+      }
+    }
+    if (radix != null) {
+      memo.put(key, total);
+    }
+    return total;
+  }
+
+  private boolean fits(int c, int[] work) {
+    int base = c * resourceCount;
+    for (int r = 0; r < resourceCount; r++) {
+      if (classNeed[base + r] > work[r]) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  private void apply(int c, int sign) {
+    remaining[c] -= sign;
+    int base = c * resourceCount;
+    for (int r = 0; r < resourceCount; r++) {
+      available[r] += sign * classHeld[base + r];
+    }
+  }
+
+  // Greedy safety check; once one member of a class fits, the whole class can run
+  private boolean canComplete() {
+    System.arraycopy(available, 0, work, 0, resourceCount);
+    int finished = 0;
+    int active = 0;
+    for (int c = 0; c < classCount; c++) {
+      done[c] = remaining[c] == 0;
+      if (!done[c]) {
+        active += 1;
+      }
+    }
+    boolean progress = true;
+    while (progress && finished < active) {
+      progress = false;
+      for (int c = 0; c < classCount; c++) {
+        if (!done[c] && fits(c, work)) {
+          done[c] = true;
+          finished += 1;
+          int base = c * resourceCount;
+          for (int r = 0; r < resourceCount; r++) {
+            work[r] += remaining[c] * classHeld[base + r];
+          }
+          progress = true;
+        }
+      }
+    }
+    return finished == active;
+  }
+}
@@ -0,0 +1,69 @@
+package benchmarks;
+
+import java.lang.reflect.Method;
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongSupplier;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/*
+Time to enumerate (count) every safe sequence of a generated instance, for
+each engine. All engines must agree on the count for the same parameters,
+which the setup checks against backtrack so a broken engine cannot look fast.
+*/
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class EnumerationBenchmark {
+
+  @Param({"backtrack", "memo", "inplace", "serial", "parallel", "prune"})
+  public String engine;
+
+  @Param({"7", "9"})
+  public int processes;
+
+  @Param({"3", "8"})
+  public int resources;
+
+  @Param({"0.5", "1.0"})
+  public double slack;
+
+  private LongSupplier run;
+
+  @Setup(Level.Trial)
+  public void setup() throws ReflectiveOperationException {
+    run = create(engine, processes, resources, slack);
+    long expected = create("backtrack", processes, resources, slack).getAsLong();
+    long actual = run.getAsLong();
+    if (actual != expected) {
+      throw new IllegalStateException(engine + " found " + actual + " solutions, backtrack found " + expected);
+    }
+  }
+
+  @Benchmark
+  public long enumerate() {
+    return run.getAsLong();
+  }
+
+  // The engines are in the default package, so they are reached through BenchmarkEngines.create
+  static LongSupplier create(String engine, int processes, int resources, double slack)
+    throws ReflectiveOperationException {
+    Method create = Class.forName("BenchmarkEngines")
+      .getMethod("create", String.class, int.class, int.class, double.class, long.class);
+    return (LongSupplier) create.invoke(null, engine, processes, resources, slack, 412L);
+  }
+}
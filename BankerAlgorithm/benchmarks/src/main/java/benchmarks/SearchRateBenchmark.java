@@ -0,0 +1,68 @@
+package benchmarks;
+
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongSupplier;
+
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/*
+Nodes explored per second by the in-place search (reported as the "nodes"
+secondary result), and time to the first safe sequence, which is what a
+caller that only needs one answer pays with the exhaustive engine.
+*/
+@State(Scope.Benchmark)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class SearchRateBenchmark {
+
+  @Param({"9", "11"})
+  public int processes;
+
+  @Param({"3", "8"})
+  public int resources;
+
+  @Param({"0.5", "1.0"})
+  public double slack;
+
+  private LongSupplier nodes;
+  private LongSupplier first;
+
+  @AuxCounters(AuxCounters.Type.OPERATIONS)
+  @State(Scope.Thread)
+  public static class Counters {
+    public long nodes;
+  }
+
+  @Setup(Level.Trial)
+  public void setup() throws ReflectiveOperationException {
+    nodes = EnumerationBenchmark.create("inplace-nodes", processes, resources, slack);
+    first = EnumerationBenchmark.create("inplace-first", processes, resources, slack);
+  }
+
+  @Benchmark
+  @BenchmarkMode(Mode.Throughput)
+  @OutputTimeUnit(TimeUnit.SECONDS)
+  public void nodeRate(Counters counters) {
+    counters.nodes += nodes.getAsLong();
+  }
+
+  @Benchmark
+  @BenchmarkMode(Mode.SampleTime)
+  @OutputTimeUnit(TimeUnit.MICROSECONDS)
+  public long timeToFirstSolution() {
+    return first.getAsLong();
+  }
+}
@@ -0,0 +1,51 @@
+package benchmarks;
+
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongSupplier;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/*
+Time for the BankerModel fast path to find one safe sequence on large
+instances, far beyond what the exhaustive engines can handle.
+*/
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class SingleSequenceBenchmark {
+
+  @Param({"1000", "10000"})
+  public int processes;
+
+  @Param({"8", "32"})
+  public int resources;
+
+  @Param({"0.5", "1.0"})
+  public double slack;
+
+  private LongSupplier run;
+
+  @Setup(Level.Trial)
+  public void setup() throws ReflectiveOperationException {
+    run = EnumerationBenchmark.create("single", processes, resources, slack);
+  }
+
+  @Benchmark
+  public long findSafeSequence() {
+    return run.getAsLong();
+  }
+}
@@ -0,0 +1,228 @@
+import java.io.IOException;
+import java.nio.file.DirectoryIteratorException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.LinkOption;
+import java.nio.file.NotDirectoryException;
+import java.nio.file.Path;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountedCompleter;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.Stream;
+
+/**
+ * Lists a directory tree with files and directories kept apart. Every directory is read by its own
+ * fork/join task through Files.newDirectoryStream, so sibling directories are listed at the same time,
+ * and the attributes of each entry are read exactly once (without following symbolic links) and kept
+ * with it, so sorting entries into files and directories, or asking for a size later, costs no
+ * further system calls. A directory that cannot be read is reported and skipped; the rest of the
+ * tree is still listed.
+ *
+ * Both lists come out in the same order whatever the scheduling: depth first, with the entries of
+ * each directory sorted by name. Everything that is not a directory (including symbolic links, which
+ * are not followed) counts as a file.
+ */
+public class DirectoryWalker {
+
+    /**
+     * A path with the attributes read for it during the walk.
+     */
+    public static class Entry {
+        public final Path path;
+        public final BasicFileAttributes attributes;
+
+        Entry(Path path, BasicFileAttributes attributes) {
+            this.path = path;
+            this.attributes = attributes;
+        }
+
+        @Override
+        public String toString() {
+            return path.toString();
+        }
+    }
+
+    /**
+     * The result of a walk: files and directories as separate lists, and a message for each
+     * directory that could not be read.
+     */
+    public static class Listing {
+        private final List<Entry> files;
+        private final List<Entry> directories;
+        private final List<String> errors;
+
+        Listing(List<Entry> files, List<Entry> directories, List<String> errors) {
+            this.files = Collections.unmodifiableList(files);
+            this.directories = Collections.unmodifiableList(directories);
+            this.errors = Collections.unmodifiableList(errors);
+        }
+
+        public Stream<Entry> files() {
+            return files.stream();
+        }
+
+        public Stream<Entry> directories() {
+            return directories.stream();
+        }
+
+        public int fileCount() {
+            return files.size();
+        }
+
+        public int directoryCount() {
+            return directories.size();
+        }
+
+        public List<String> errors() {
+            return errors;
+        }
+    }
+
+    private static final Comparator<Entry> BY_NAME = Comparator.comparing(entry -> entry.path.getFileName());
+
+    private final ForkJoinPool pool;
+
+    public DirectoryWalker() {
+        this(ForkJoinPool.commonPool());
+    }
+
+    public DirectoryWalker(ForkJoinPool pool) {
+        this.pool = pool;
+    }
+
+    /**
+     * Lists everything under root down to maxDepth levels (1 for the content of root alone). Root
+     * itself is not listed.
+     */
+    public Listing walk(Path root, int maxDepth) throws IOException {
+        if (maxDepth < 1) {
+            throw new IllegalArgumentException("The depth must be at least 1.");
+        }
+        BasicFileAttributes attributes = Files.readAttributes(root, BasicFileAttributes.class);
+        if (!attributes.isDirectory()) {
+            throw new NotDirectoryException(root.toString());
+        }
+        Queue<String> errors = new ConcurrentLinkedQueue<>();
+        Node top = new Node(new Entry(root, attributes));
+        pool.invoke(new Scan(null, top, 1, maxDepth, errors));
+        if (top.failure != null) {
+            throw top.failure;
+        }
+
+        // Flatten the tree depth first with an explicit stack; like the scan, this never recurses
+        List<Entry> files = new ArrayList<>();
+        List<Entry> directories = new ArrayList<>();
+        Deque<Node> stack = new ArrayDeque<>();
+        stack.push(top);
+        while (!stack.isEmpty()) {
+            Node node = stack.pop();
+            if (node != top) {
+                directories.add(node.self);
+            }
+            Collections.addAll(files, node.files);
+            for (int c = node.children.length - 1; c >= 0; c--) {
+                stack.push(node.children[c]);
+            }
+        }
+        return new Listing(files, directories, new ArrayList<>(errors));
+    }
+
+    /**
+     * One directory as listed: its files, and a node for each subdirectory (left empty below the
+     * maximum depth), both sorted by name.
+     */
+    private static class Node {
+        private static final Entry[] NO_FILES = new Entry[0];
+        private static final Node[] NO_CHILDREN = new Node[0];
+
+        final Entry self;
+        Entry[] files = NO_FILES;
+        Node[] children = NO_CHILDREN;
+        IOException failure = null;
+
+        Node(Entry self) {
+            this.self = self;
+        }
+    }
+
+    /**
+     * Reads one directory into its node, then forks a subtask for each subdirectory. A task never
+     * waits for its subtasks: it sets a pending count, and whichever of them finishes last completes
+     * it (see CountedCompleter), so every task runs on a short stack however deep the tree is.
+     */
+    @SuppressWarnings("serial") // Tasks are never serialized
+    private static class Scan extends CountedCompleter<Void> {
+        private final Node node;
+        private final int depth;
+        private final int maxDepth;
+        private final Queue<String> errors; // Shared by all the tasks of one walk
+
+        Scan(Scan parent, Node node, int depth, int maxDepth, Queue<String> errors) {
+            super(parent);
+            this.node = node;
+            this.depth = depth;
+            this.maxDepth = maxDepth;
+            this.errors = errors;
+        }
+
+        @Override
+        public void compute() {
+            List<Entry> files = new ArrayList<>();
+            List<Entry> subdirectories = new ArrayList<>();
+            try (DirectoryStream<Path> stream = Files.newDirectoryStream(node.self.path)) {
+                for (Path path: stream) {
+                    BasicFileAttributes attributes;
+                    try {
+                        attributes = Files.readAttributes(path, BasicFileAttributes.class, LinkOption.NOFOLLOW_LINKS);
+                    } catch (IOException e) {
+                        errors.add(path + ": " + e.getMessage()); // Deleted since it was listed, or unreadable
+                        continue;
+                    }
+                    (attributes.isDirectory() ? subdirectories : files).add(new Entry(path, attributes));
+                }
+            } catch (IOException e) {
+                failed(e);
+                return;
+            } catch (DirectoryIteratorException e) {
+                failed(e.getCause());
+                return;
+            }
+            files.sort(BY_NAME);
+            subdirectories.sort(BY_NAME);
+            node.files = files.toArray(Node.NO_FILES);
+
+            node.children = new Node[subdirectories.size()];
+            for (int c = 0; c < subdirectories.size(); c++) {
+                node.children[c] = new Node(subdirectories.get(c));
+            }
+            if (depth < maxDepth) {
+                setPendingCount(node.children.length);
+                for (Node child: node.children) {
+                    new Scan(this, child, depth + 1, maxDepth, errors).fork();
+                }
+            }
+            tryComplete();
+        }
+
+        /**
+         * Reports a directory that could not be read. For the root this fails the whole walk, for
+         * any other directory it only leaves that directory empty.
+         */
+        private void failed(IOException e) {
+            if (depth == 1) {
+                node.failure = e;
+            } else {
+                errors.add(node.self.path + ": " + e.getMessage());
+            }
+            tryComplete();
+        }
+    }
+}
@@ -0,0 +1,168 @@
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Hexadecimal view of a file, in the layout of "hexdump -C": an offset column, 16 bytes in hex split
+ * into two groups of 8, and the same bytes as ASCII with '.' for anything unprintable.
+ *
+ * 00000000  48 65 6c 6c 6f 2c 20 77  6f 72 6c 64 21 0a 00 ff  |Hello, world!...|
+ *
+ * The file is memory-mapped a window at a time rather than read byte by byte, and rows are built in
+ * one reusable byte array from lookup tables (two hex digits per byte value, one ASCII character per
+ * byte value) instead of going through printf, a thousand rows at a time, each batch going to a
+ * single buffered stream in one write. Any window of the file can be shown, and write can be called
+ * again with the returned offset to page through it.
+ */
+public class HexDump implements Closeable {
+
+    public static final int BYTES_PER_LINE = 16;
+    private static final long WINDOW_SIZE = 64L << 20; // Multiple of BYTES_PER_LINE, so rows never straddle windows
+    private static final int LINES_PER_BLOCK = 1024; // Rows formatted before each write
+    private static final byte[] DIGITS = "0123456789abcdef".getBytes();
+    private static final byte[] HEX = new byte[512]; // Two hex digits for each byte value
+    private static final int[] HEX_CELL = new int[256]; // "xx  " for each byte value, as a little-endian int
+    private static final byte[] ASCII = new byte[256]; // Printable character for each byte value
+    private static final VarHandle INTS = MethodHandles.byteArrayViewVarHandle(int[].class, ByteOrder.LITTLE_ENDIAN);
+
+    static {
+        for (int b = 0; b < 256; b++) {
+            HEX[2 * b] = DIGITS[b >>> 4];
+            HEX[2 * b + 1] = DIGITS[b & 0xf];
+            HEX_CELL[b] = HEX[2 * b] | HEX[2 * b + 1] << 8 | ' ' << 16 | ' ' << 24;
+            ASCII[b] = (byte) (b >= 0x20 && b < 0x7f ? b : '.');
+        }
+    }
+
+    private final FileChannel channel;
+    private final long size;
+    private final OutputStream out;
+    private final int offsetDigits; // Enough for the largest offset, at least 8 and even
+    private final int hexStart; // Column of the first hex digit pair
+    private final byte[] block; // Up to LINES_PER_BLOCK formatted rows
+    private final byte[] bytes = new byte[LINES_PER_BLOCK * BYTES_PER_LINE]; // The file bytes they show
+    private MappedByteBuffer window = null;
+    private long windowStart = 0;
+
+    public HexDump(Path file, OutputStream out) throws IOException {
+        channel = FileChannel.open(file, StandardOpenOption.READ);
+        size = channel.size();
+        offsetDigits = Math.max(8, (64 - Long.numberOfLeadingZeros(Math.max(1, size - 1)) + 7) / 8 * 2);
+        hexStart = offsetDigits + 2;
+        int lineLength = hexStart + BYTES_PER_LINE * 3 + 2 + BYTES_PER_LINE + 3; // Newline included
+        block = new byte[LINES_PER_BLOCK * lineLength];
+        this.out = new BufferedOutputStream(out, block.length);
+    }
+
+    public long size() {
+        return size;
+    }
+
+    /**
+     * Writes the rows for bytes [offset, offset + length) of the file, cut short at the end of the
+     * file, and returns the offset just past the last byte shown. Rows start at offset itself, so the
+     * offsets of a window that does not start on a multiple of 16 are not multiples of 16 either.
+     */
+    public long write(long offset, long length) throws IOException {
+        if (offset < 0 || length < 0) {
+            throw new IllegalArgumentException("The offset and length must not be negative.");
+        }
+        long end = offset + Math.min(length, size - Math.min(offset, size));
+        long position = offset;
+        while (position < end) {
+            int count = (int) Math.min(bytes.length, end - position);
+            read(position, count);
+            int used = 0;
+            for (int b = 0; b < count; b += BYTES_PER_LINE) {
+                used = format(position + b, b, Math.min(BYTES_PER_LINE, count - b), used);
+            }
+            out.write(block, 0, used);
+            position += count;
+        }
+        out.flush();
+        return position;
+    }
+
+    /**
+     * Copies count bytes at the given file offset into bytes, mapping the next window when the
+     * current one does not hold them.
+     */
+    private void read(long position, int count) throws IOException {
+        if (window == null || position < windowStart || position + count > windowStart + window.limit()) {
+            windowStart = position;
+            window = channel.map(FileChannel.MapMode.READ_ONLY, position, Math.min(WINDOW_SIZE, size - position));
+        }
+        window.get((int) (position - windowStart), bytes, 0, count);
+    }
+
+    /**
+     * Lays out the row for bytes[from, from + count), which are at the given file offset, in block
+     * starting at index i, and returns the index just past it.
+     */
+    private int format(long position, int from, int count, int i) {
+        for (int d = i + offsetDigits - 2; d >= i; d -= 2) { // offsetDigits is even, a byte per two digits
+            int value = (int) (position & 0xff);
+            block[d] = HEX[2 * value];
+            block[d + 1] = HEX[2 * value + 1];
+            position >>>= 8;
+        }
+        i += offsetDigits;
+        block[i++] = ' ';
+        block[i++] = ' ';
+        if (count == BYTES_PER_LINE) {
+            i = formatHex(from, BYTES_PER_LINE / 2, i);
+            block[i++] = ' ';
+            i = formatHex(from + BYTES_PER_LINE / 2, BYTES_PER_LINE / 2, i);
+        } else {
+            for (int b = 0; b < BYTES_PER_LINE; b++) {
+                if (b == BYTES_PER_LINE / 2) {
+                    block[i++] = ' ';
+                }
+                if (b < count) {
+                    i = formatHex(from + b, 1, i);
+                } else {
+                    block[i++] = ' ';
+                    block[i++] = ' ';
+                    block[i++] = ' ';
+                }
+            }
+        }
+        block[i++] = ' ';
+        block[i++] = '|';
+        for (int b = from; b < from + count; b++) {
+            block[i++] = ASCII[bytes[b] & 0xff];
+        }
+        block[i++] = '|';
+        block[i++] = '\n';
+        return i;
+    }
+
+    /**
+     * Writes count bytes from bytes[from] on as "xx " each, starting at block[i], and returns the
+     * index just past them.
+     */
+    private int formatHex(int from, int count, int i) {
+        for (int b = from; b < from + count; b++) {
+            INTS.set(block, i, HEX_CELL[bytes[b] & 0xff]); // The fourth byte is overwritten by what follows
+            i += 3;
+        }
+        return i;
+    }
+
+    /**
+     * Closes the file; the output stream is flushed but left open.
+     */
+    @Override
+    public void close() throws IOException {
+        out.flush();
+        channel.close();
+    }
+}
@@ -1,6 +1,7 @@
 import java.io.*;
 import java.nio.file.Files;
 import java.nio.file.NoSuchFileException;
+import java.nio.file.NotDirectoryException;
 import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.util.Scanner;
@@ -13,6 +14,7 @@ public class Main {
     public static final String ANSI_YELLOW = "\u001B[33m";
     public static final String ANSI_GREEN = "\u001B[32m";
     public static final String ANSI_RESET = "\u001B[0m";
+    private static final int HEX_PAGE_LINES = 32; // Rows shown before asking to continue
 
     /**
      * Displays menu options for user to select from.
@@ -29,6 +31,8 @@ public class Main {
         System.out.println("5 - Display file (hexadecimal view)");
         System.out.println("6 - Encrypt file (XOR with password)");
         System.out.println("7 - Decrypt file (XOR with password)");
+        System.out.println("8 - Encrypt all files in directory tree (XOR with password)");
+        System.out.println("9 - Decrypt all files in directory tree (XOR with password)");
         System.out.print("\n\033[1mPlease select from the above menu options (default 0): \033[0m\n");
     }
 
@@ -44,11 +48,7 @@ public class Main {
                 selectDirectory(input); // Prompts user to select directory
                 break;
             case 2:
-                try {
-                    listDirectory(); // Lists content of selected directory (first level)
-                } catch (IOException e) {
-                    e.printStackTrace(); // Catches IOException and prints error message
-                }
+                listDirectory(); // Lists content of selected directory (first level)
                 break;
             case 3:
                 listDirectoryRecursive(); // // Lists content of selected directory (all levels)
@@ -65,6 +65,12 @@ public class Main {
             case 7:
                 fileBytes(input, "decrypt"); // Decrypts selected file (XOR with password)
                 break;
+            case 8:
+                treeBytes(input, "encrypt"); // Encrypts every file under selected directory
+                break;
+            case 9:
+                treeBytes(input, "decrypt"); // Decrypts every file under selected directory
+                break;
             default:
                 exitProgram(); // Prints exit message and ends program
         }
@@ -109,11 +115,10 @@ public class Main {
      * directories from the first level must be displayed (files and directories should be listed
      * separately). If no directory was selected an error message must be displayed.
      */
-    private static void listDirectory() throws IOException {
+    private static void listDirectory() {
         if (!(directoryPath == null)) {
-            System.out.println("\nContents of current directory (first level):\n");
-            Files.list(new File(directoryPath.toString()).toPath())
-                .forEach(System.out::println);
+            System.out.println("\nContents of current directory (first level):");
+            printListing(1);
         } else {
             System.out.println(ANSI_YELLOW + "\nYou must first select a directory." + ANSI_RESET);
         }
@@ -124,17 +129,43 @@ public class Main {
      * directories from the first and subsequent levels must be displayed (files and directories should
      * be listed separately). If no directory was selected an error message must be displayed.
      */
-    private static void listDirectoryRecursive() throws IOException {
+    private static void listDirectoryRecursive() {
         if (!(directoryPath == null)) {
-            System.out.println("\nContents of current directory (all levels):\n");
-            Files.walk(Paths.get(String.valueOf(directoryPath)))
-                .filter(Files::isRegularFile)
-                .forEach(System.out::println);
+            System.out.println("\nContents of current directory (all levels):");
+            printListing(Integer.MAX_VALUE);
         } else {
             System.out.println(ANSI_YELLOW + "\nYou must first select a directory." + ANSI_RESET);
         }
     }
 
+    /**
+     * Walks the selected directory down to maxDepth levels (see DirectoryWalker) and prints the
+     * directories, then the files, through one buffered writer, followed by any entries that could
+     * not be read.
+     */
+    private static void printListing(int maxDepth) {
+        DirectoryWalker.Listing listing;
+        try {
+            listing = new DirectoryWalker().walk(directoryPath, maxDepth);
+        } catch (NotDirectoryException e) {
+            System.out.println(ANSI_RED + "\nUh-oh. " + directoryPath.toString() + " is not a directory." + ANSI_RESET);
+            return;
+        } catch (IOException e) {
+            System.out.println(ANSI_RED + "\nUh-oh. The directory could not be read: " + e.getMessage() + ANSI_RESET);
+            return;
+        }
+
+        PrintWriter writer = new PrintWriter(new BufferedWriter(new OutputStreamWriter(System.out), 1 << 16));
+        writer.println("\nDirectories (" + listing.directoryCount() + "):\n");
+        listing.directories().forEach(writer::println);
+        writer.println("\nFiles (" + listing.fileCount() + "):\n");
+        listing.files().forEach(writer::println);
+        writer.flush(); // Not closed, which would close System.out
+        for (String error: listing.errors()) {
+            System.out.println(ANSI_RED + "\nUh-oh. " + error + ANSI_RESET);
+        }
+    }
+
     /**
      * This option prompts the user for a filename and deletes that file from the selected directory. If 
      * no directory was selected an error message must be displayed. If the directory does not contain 
@@ -165,7 +196,8 @@ public class Main {
      * content of that file on the screen, in hexadecimal view. If no directory was selected an error 
      * message must be displayed. If the directory does not contain the file specified by the user, an 
      * error message must be displayed. The filename does not include any path, it’s just the name of
-     * the file.
+     * the file. A start offset and number of bytes may be given to show only part of the file, which
+     * is shown a page at a time (see HexDump).
      */
     private static void displayFileHex(Scanner input) {
         if (directoryPath == null) {
@@ -174,30 +206,62 @@ public class Main {
         }
 
         System.out.print("\nPlease enter filename: " + directoryPath.toString() + "/");
-        String filePath = directoryPath + "/" + input.nextLine();
-        System.out.println("\nContents of " + directoryPath.toString() + " in hexadecimal view:\n");
-
-        try (FileInputStream fileInputStream = new FileInputStream(filePath)) {
-            int i = 0;
-            int count = 0;
-            while ((i = fileInputStream.read()) != -1) {
-                System.out.printf("%02x ", i);
-                count++;
-                if (count == 16) {
-                    System.out.println("");
-                    count = 0;
+        Path filePath = directoryPath.resolve(input.nextLine());
+
+        try (HexDump hexDump = new HexDump(filePath, System.out)) {
+            long offset = readNumber(input, "\nPlease enter start offset (default 0): ", 0);
+            long length = readNumber(input, "\nPlease enter number of bytes (default whole file): ", Long.MAX_VALUE);
+            long end = offset + Math.min(length, Math.max(0, hexDump.size() - offset));
+            System.out.println("\nContents of " + filePath.toString() + " in hexadecimal view:\n");
+
+            long pageBytes = (long) HEX_PAGE_LINES * HexDump.BYTES_PER_LINE;
+            while (offset < end) {
+                offset = hexDump.write(offset, Math.min(pageBytes, end - offset));
+                if (offset < end) {
+                    System.out.print(ANSI_YELLOW + "\nPress Enter for more, a for all, q to stop: " + ANSI_RESET);
+                    String answer = input.nextLine().trim();
+                    System.out.println();
+                    if (answer.equalsIgnoreCase("q")) {
+                        break;
+                    } else if (answer.equalsIgnoreCase("a")) {
+                        pageBytes = Long.MAX_VALUE;
+                    }
                 }
             }
             System.out.println("");
-        } catch (FileNotFoundException e) {
-            e.printStackTrace();
+        } catch (NoSuchFileException e) {
+            System.out.println(ANSI_RED + "\nUh-oh. File not found." + ANSI_RESET);
         } catch (IOException e) {
-            e.printStackTrace();
-        };
+            System.out.println(ANSI_RED + "\nUh-oh. The file could not be read: " + e.getMessage() + ANSI_RESET);
+        }
+    }
+
+    /**
+     * Prompts for a non-negative number, decimal or hexadecimal (0x...), until one is entered. An empty
+     * answer gives the default.
+     */
+    private static long readNumber(Scanner input, String prompt, long defaultValue) {
+        System.out.print(prompt);
+        while (true) {
+            String answer = input.nextLine().trim();
+            if (answer.isEmpty()) {
+                return defaultValue;
+            }
+            try {
+                long value = Long.decode(answer);
+                if (value >= 0) {
+                    return value;
+                }
+            } catch (NumberFormatException e) {
+                // Asked again below
+            }
+            System.out.println(ANSI_RED + "\nUh-oh. " + answer + " is not a valid number." + ANSI_RESET);
+            System.out.print(ANSI_YELLOW + "\nPlease enter a number (e.g. 4096 or 0x1000): " + ANSI_RESET);
+        }
     }
 
     /**
-     * Prepares for file encryption/decryption by obtaining file size (bytes) and password.
+     * Prepares for file encryption/decryption by obtaining the file and password.
      */
     private static void fileBytes(Scanner input, String action) {
         if (directoryPath == null) {
@@ -207,24 +271,22 @@ public class Main {
 
         System.out.print("\nPlease enter filename: " + directoryPath.toString() + "/");
         String fileName = input.nextLine();
-        String filePath = directoryPath + "/" + fileName;
         System.out.print("\nPlease enter password: ");
         String password = input.nextLine();
 
         if (password.getBytes().length > 256) {
             System.out.println(ANSI_YELLOW + "\nUh-oh. Password is too long." + ANSI_RESET);
         }
+        if (password.isEmpty()) {
+            System.out.println(ANSI_RED + "\nUh-oh. You did not enter a password." + ANSI_RESET);
+            return;
+        }
 
-        try {
-            byte[] fileBytes = Files.readAllBytes(Paths.get(filePath));
-            byte[] passwordBytes = password.getBytes();
-            if (action == "encrypt") {
-                encryptFile(fileBytes, passwordBytes, fileName);
-            } else {
-                decryptFile(fileBytes, passwordBytes, fileName);
-            }
-        } catch (IOException e) {
-            e.printStackTrace();
+        byte[] passwordBytes = password.getBytes();
+        if (action == "encrypt") {
+            encryptFile(passwordBytes, fileName);
+        } else {
+            decryptFile(passwordBytes, fileName);
         }
     }
 
@@ -233,29 +295,17 @@ public class Main {
      * other characters) and then prompts the user for a filename and encrypts the content of the 
      * selected file using that password. The encryption method is very simple: just XOR the 
      * password with the file content byte after byte; the password being shorter than the file content, 
-     * you must repeat the password as needed.
+     * you must repeat the password as needed. The file is streamed in chunks (see XorCipher), so it
+     * may be larger than memory, and it is only replaced once the encrypted copy is complete.
      */
-    private static void encryptFile(byte[] fileBytes, byte[] passwordBytes, String fileName) {
+    private static void encryptFile(byte[] passwordBytes, String fileName) {
         try {
-            int j = 0;
-            for (int i = 0; i < fileBytes.length; i++) {
-                if (j > passwordBytes.length - 1) {
-                    j = 0;
-                }
-                fileBytes[i] = (byte)(fileBytes[i] ^ passwordBytes[j]);
-                j++;
-            }
-            File outputFile = new File(directoryPath + "/" + fileName);
-            FileOutputStream stream = new FileOutputStream(outputFile); // Creates new file
-            try {
-                stream.write(fileBytes);
-                System.out.println(ANSI_GREEN + "\nFile successfully encrypted." + ANSI_RESET);
-            } finally {
-                stream.close();
-            }
-        } catch (IOException e) {
+            new XorCipher(passwordBytes).apply(directoryPath.resolve(fileName));
+            System.out.println(ANSI_GREEN + "\nFile successfully encrypted." + ANSI_RESET);
+        } catch (NoSuchFileException e) {
             System.out.println(ANSI_RED + "\nUh-oh. Your file was not found." + ANSI_RESET);
-            return;
+        } catch (IOException e) {
+            System.out.println(ANSI_RED + "\nUh-oh. Your file could not be encrypted: " + e.getMessage() + ANSI_RESET);
         }
     }
 
@@ -264,33 +314,66 @@ public class Main {
      * other characters) and then prompts the user for a filename and decrypts the content of the 
      * selected file using that password. The decryption method is very simple: just XOR the 
      * password with the file content byte after byte; the password being shorter than the file content, 
-     * you must repeat the password as needed.
+     * you must repeat the password as needed. Like encryption, the file is streamed in chunks and
+     * replaced atomically.
      */
-    private static void decryptFile(byte[] fileBytes, byte[] passwordBytes, String fileName) {
+    private static void decryptFile(byte[] passwordBytes, String fileName) {
         try {
-            int j = 0;
-            for (int i = 0; i < fileBytes.length; i++) {
-                if (j > passwordBytes.length - 1) {
-                    j = 0;
-                }
-                fileBytes[i] = (byte)(passwordBytes[j] ^ fileBytes[i]);
-                j++;
+            new XorCipher(passwordBytes).apply(directoryPath.resolve(fileName));
+            System.out.println(ANSI_GREEN + "\nFile successfully decrypted." + ANSI_RESET);
+        } catch (NoSuchFileException e) {
+            System.out.println(ANSI_RED + "\nUh-oh. Your file was not found." + ANSI_RESET);
+        } catch (IOException e) {
+            System.out.println(ANSI_RED + "\nUh-oh. Your file could not be decrypted: " + e.getMessage() + ANSI_RESET);
+        }
+    }
+
+    /**
+     * This option prompts the user for a password and encrypts or decrypts every file in the selected
+     * directory and all of its subdirectories, in the same way as options 6 and 7. Files are processed
+     * in parallel, large files in independent pieces (see TreeCipher), while progress and throughput
+     * are shown. Files that cannot be processed are listed at the end and left unchanged.
+     */
+    private static void treeBytes(Scanner input, String action) {
+        if (directoryPath == null) {
+            System.out.println(ANSI_YELLOW + "\nYou must first select a directory." + ANSI_RESET);
+            return;
+        }
+
+        System.out.print("\nPlease enter password: ");
+        String password = input.nextLine();
+
+        if (password.getBytes().length > 256) {
+            System.out.println(ANSI_YELLOW + "\nUh-oh. Password is too long." + ANSI_RESET);
+        }
+        if (password.isEmpty()) {
+            System.out.println(ANSI_RED + "\nUh-oh. You did not enter a password." + ANSI_RESET);
+            return;
+        }
+
+        System.out.print("\nThis will " + action + " every file in " + directoryPath.toString() + " and its subdirectories. Continue? (y/n): ");
+        if (!input.nextLine().trim().equalsIgnoreCase("y")) {
+            return;
+        }
+
+        TreeCipher cipher = new TreeCipher(password.getBytes(), Runtime.getRuntime().availableProcessors());
+        try {
+            System.out.println();
+            TreeCipher.Progress result = cipher.run(directoryPath, progress -> System.out.print("\r" + progress));
+            System.out.println("\r" + result);
+            for (String failure: result.failures) {
+                System.out.println(ANSI_RED + "\nUh-oh. " + failure + ANSI_RESET);
             }
-            File outputFile = new File(directoryPath + "/" + fileName);
-            FileOutputStream stream = new FileOutputStream(outputFile);
-            try {
-                stream.write(fileBytes);
-                System.out.println(ANSI_GREEN + "\nFile successfully decrypted." + ANSI_RESET);
-            } finally {
-                stream.close();
+            if (result.failures.isEmpty()) {
+                System.out.println(ANSI_GREEN + "\nAll files successfully " + action + "ed." + ANSI_RESET);
             }
         } catch (IOException e) {
-            System.out.println(ANSI_RED + "\nUh-oh. Your file was not found." + ANSI_RESET);
+            System.out.println(ANSI_RED + "\nUh-oh. The directory could not be " + action + "ed: " + e.getMessage() + ANSI_RESET);
         }
     }
 
     /**
-     * The menu is displayed and the user must select an option (a number between 0 and 7). The 
+     * The menu is displayed and the user must select an option (a number between 0 and 9). The 
      * action corresponding to the selection is performed, then the menu is displayed again and the 
      * user can choose another option. This cycle is repeated until the user selects 0, which exits the 
      * loop and ends the program.
@@ -0,0 +1,325 @@
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+
+/**
+ * XORs every regular file under a directory with a repeating password, many files at once. Each
+ * byte's key only depends on its offset in its file, so a file is cut into ranges of RANGE_SIZE bytes
+ * that are processed independently: each range task reads its slice with positional FileChannel
+ * reads, XORs it with XorKernel and writes it at the same offset of the file's temporary copy. Small
+ * files are a single range, so a tree of many small files and one huge file both keep every thread
+ * busy. When the last range of a file is done, the copy is forced to disk and atomically moved over
+ * the original, exactly as XorCipher does for one file, so a failure never leaves a file half
+ * encrypted.
+ *
+ * Tasks run on a fixed pool of threads with a bounded queue; when the queue is full the walking
+ * thread runs the task itself, which bounds the number of files open at once however large the tree
+ * is. Symbolic links are not followed. A file that fails is reported and left as it was, and the
+ * others carry on. If the run is interrupted, the ranges still queued are dropped and their files
+ * are failed the same way, so every channel is closed and every temporary copy is deleted before
+ * run returns.
+ */
+public class TreeCipher {
+
+    private static final int RANGE_SIZE = 8 << 20;
+    private static final int BUFFER_SIZE = 1 << 20;
+    private static final long PROGRESS_INTERVAL = 500_000_000L; // Nanoseconds between progress reports
+
+    private final XorKernel kernel;
+    private final int threads;
+    private final ThreadLocal<ByteBuffer> buffers = ThreadLocal.withInitial(() -> ByteBuffer.allocateDirect(BUFFER_SIZE));
+
+    private final AtomicLong bytesDone = new AtomicLong();
+    private final AtomicInteger filesDone = new AtomicInteger();
+    private final Queue<String> failures = new ConcurrentLinkedQueue<>();
+
+    public TreeCipher(byte[] password, int threads) {
+        if (threads < 1) {
+            throw new IllegalArgumentException("At least one thread is required.");
+        }
+        kernel = new XorKernel(password);
+        this.threads = threads;
+    }
+
+    /**
+     * Progress of a run: files and bytes finished so far out of the totals found under the directory.
+     */
+    public static class Progress {
+        public final int files;
+        public final int totalFiles;
+        public final long bytes;
+        public final long totalBytes;
+        public final long nanos; // Time since the run started
+        public final List<String> failures;
+
+        Progress(int files, int totalFiles, long bytes, long totalBytes, long nanos, List<String> failures) {
+            this.files = files;
+            this.totalFiles = totalFiles;
+            this.bytes = bytes;
+            this.totalBytes = totalBytes;
+            this.nanos = nanos;
+            this.failures = failures;
+        }
+
+        public double megabytesPerSecond() {
+            return nanos == 0 ? 0 : bytes / 1e6 / (nanos / 1e9);
+        }
+
+        @Override
+        public String toString() {
+            return String.format("%d/%d files, %.1f/%.1f MB, %.1f MB/s", files, totalFiles, bytes / 1e6,
+                totalBytes / 1e6, megabytesPerSecond());
+        }
+    }
+
+    /**
+     * Processes every regular file under root, calling progress about twice a second from the calling
+     * thread, and returns the final totals with a message for each file that failed. A TreeCipher
+     * runs one tree at a time.
+     */
+    public synchronized Progress run(Path root, Consumer<Progress> progress) throws IOException {
+        DirectoryWalker.Listing listing = new DirectoryWalker().walk(root, Integer.MAX_VALUE);
+        failures.addAll(listing.errors());
+        List<Path> files = new ArrayList<>(listing.fileCount());
+        long[] totalBytes = {0};
+        listing.files()
+            .filter(entry -> entry.attributes.isRegularFile())
+            .forEach(entry -> {
+                files.add(entry.path.toAbsolutePath());
+                totalBytes[0] += entry.attributes.size();
+            });
+
+        bytesDone.set(0);
+        filesDone.set(0);
+        long start = System.nanoTime();
+        long lastReport = start;
+        ThreadPoolExecutor pool = new ThreadPoolExecutor(threads, threads, 0, TimeUnit.SECONDS,
+            new ArrayBlockingQueue<>(threads * 4), new ThreadPoolExecutor.CallerRunsPolicy());
+        try {
+            for (Path file: files) {
+                submit(pool, file);
+                long now = System.nanoTime();
+                if (now - lastReport >= PROGRESS_INTERVAL) {
+                    progress.accept(snapshot(files.size(), totalBytes[0], now - start));
+                    lastReport = now;
+                }
+            }
+            pool.shutdown();
+            while (!pool.awaitTermination(PROGRESS_INTERVAL, TimeUnit.NANOSECONDS)) {
+                progress.accept(snapshot(files.size(), totalBytes[0], System.nanoTime() - start));
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while processing " + root + ".", e);
+        } finally {
+            for (Runnable dropped: pool.shutdownNow()) {
+                ((Range) dropped).cancel(); // Never ran, so its file would never be finished
+            }
+            awaitWorkers(pool);
+        }
+        Progress result = snapshot(files.size(), totalBytes[0], System.nanoTime() - start);
+        failures.clear();
+        return result;
+    }
+
+    /**
+     * Waits for the ranges that were running when the pool was shut down, which finish or fail their
+     * files themselves, keeping any interrupt for the caller.
+     */
+    private static void awaitWorkers(ThreadPoolExecutor pool) {
+        boolean interrupted = Thread.interrupted();
+        while (!pool.isTerminated()) {
+            try {
+                pool.awaitTermination(PROGRESS_INTERVAL, TimeUnit.NANOSECONDS);
+            } catch (InterruptedException e) {
+                interrupted = true;
+            }
+        }
+        if (interrupted) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private Progress snapshot(int totalFiles, long totalBytes, long nanos) {
+        return new Progress(filesDone.get(), totalFiles, bytesDone.get(), totalBytes, nanos, new ArrayList<>(failures));
+    }
+
+    /**
+     * Opens the file and its temporary copy and queues one task per range.
+     */
+    private void submit(ThreadPoolExecutor pool, Path file) {
+        FileJob job;
+        try {
+            job = new FileJob(file);
+        } catch (IOException e) {
+            failures.add(file + ": " + e.getMessage());
+            return;
+        }
+        if (job.ranges == 0) {
+            job.finish();
+            return;
+        }
+        for (int r = 0; r < job.ranges; r++) {
+            long from = (long) r * RANGE_SIZE;
+            long to = Math.min(job.size, from + RANGE_SIZE);
+            pool.execute(new Range(job, from, to));
+        }
+    }
+
+    /**
+     * One range task, kept as its own class so that ranges dropped from the queue can be cancelled.
+     */
+    private static class Range implements Runnable {
+        private final FileJob job;
+        private final long from;
+        private final long to;
+
+        Range(FileJob job, long from, long to) {
+            this.job = job;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        public void run() {
+            job.process(from, to);
+        }
+
+        void cancel() {
+            job.cancel();
+        }
+    }
+
+    /**
+     * One file being processed: the channels shared by its range tasks, and how many ranges are left.
+     */
+    private class FileJob {
+        private final Path target;
+        private final Path temp;
+        private final FileChannel in;
+        private final FileChannel out;
+        private final long size;
+        private final int ranges;
+        private final AtomicInteger pending;
+        private volatile IOException failure = null;
+
+        FileJob(Path target) throws IOException {
+            this.target = target;
+            temp = XorCipher.createTemp(target);
+            FileChannel source = null;
+            FileChannel copy = null;
+            try {
+                source = FileChannel.open(target, StandardOpenOption.READ);
+                copy = FileChannel.open(temp, StandardOpenOption.WRITE);
+                size = source.size();
+            } catch (IOException e) {
+                if (source != null) {
+                    source.close();
+                }
+                if (copy != null) {
+                    copy.close();
+                }
+                Files.deleteIfExists(temp);
+                throw e;
+            }
+            in = source;
+            out = copy;
+            ranges = (int) ((size + RANGE_SIZE - 1) / RANGE_SIZE);
+            pending = new AtomicInteger(ranges);
+        }
+
+        /**
+         * XORs bytes [from, to) of the file into the temporary copy; the last range to finish
+         * completes the file.
+         */
+        void process(long from, long to) {
+            try {
+                if (failure == null) {
+                    ByteBuffer buffer = buffers.get();
+                    long position = from;
+                    while (position < to) {
+                        buffer.clear().limit((int) Math.min(buffer.capacity(), to - position));
+                        while (buffer.hasRemaining()) {
+                            if (in.read(buffer, position + buffer.position()) < 0) {
+                                throw new IOException("The file became shorter while it was being processed.");
+                            }
+                        }
+                        buffer.flip();
+                        kernel.apply(buffer, position);
+                        while (buffer.hasRemaining()) {
+                            out.write(buffer, position + buffer.position());
+                        }
+                        position += buffer.limit();
+                        bytesDone.addAndGet(buffer.limit());
+                    }
+                }
+            } catch (IOException e) {
+                failure = e;
+            } catch (RuntimeException e) {
+                failure = new IOException(e);
+            } finally {
+                if (pending.decrementAndGet() == 0) {
+                    finish();
+                }
+            }
+        }
+
+        /**
+         * Accounts for a range that will never run, failing the file; the last range to be accounted
+         * for completes the file, as in process.
+         */
+        void cancel() {
+            if (failure == null) {
+                failure = new IOException("Interrupted before the whole file was processed.");
+            }
+            if (pending.decrementAndGet() == 0) {
+                finish();
+            }
+        }
+
+        /**
+         * Closes the channels and either replaces the original with the finished copy or throws the
+         * copy away.
+         */
+        void finish() {
+            IOException error = failure;
+            try {
+                try {
+                    if (error == null) {
+                        out.force(true);
+                    }
+                } finally {
+                    in.close();
+                    out.close();
+                }
+                if (error == null) {
+                    Files.move(temp, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+                    filesDone.incrementAndGet();
+                    return;
+                }
+            } catch (IOException e) {
+                error = e;
+            }
+            failures.add(target + ": " + error.getMessage());
+            try {
+                Files.deleteIfExists(temp);
+            } catch (IOException e) {
+                failures.add(temp + ": " + e.getMessage());
+            }
+        }
+    }
+}
@@ -0,0 +1,81 @@
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * XORs a file with a repeating password without holding the file in memory. The file is streamed
+ * through one fixed direct buffer over a FileChannel, and the password position is carried from
+ * chunk to chunk (the XOR itself is XorKernel), so the output is byte for byte what XOR over the whole
+ * file would give however the reads happen to be split. The result goes to a temporary file next to
+ * the original, which replaces the original in one atomic move only once every byte has been written
+ * and forced to disk: a crash part way leaves the original untouched. XOR is its own inverse, so the
+ * same call encrypts and decrypts.
+ */
+public class XorCipher {
+
+    private static final int CHUNK_SIZE = 1 << 20;
+
+    private final XorKernel kernel;
+    private final ByteBuffer buffer = ByteBuffer.allocateDirect(CHUNK_SIZE);
+
+    public XorCipher(byte[] password) {
+        kernel = new XorKernel(password);
+    }
+
+    /**
+     * Replaces the content of the file with its XOR with the password, and returns the number of
+     * bytes processed.
+     */
+    public long apply(Path file) throws IOException {
+        Path target = file.toAbsolutePath();
+        Path temp = createTemp(target);
+        boolean moved = false;
+        try {
+            long position = 0;
+            try (FileChannel in = FileChannel.open(target, StandardOpenOption.READ);
+                 FileChannel out = FileChannel.open(temp, StandardOpenOption.WRITE)) {
+                while (true) {
+                    buffer.clear();
+                    if (in.read(buffer) < 0) {
+                        break;
+                    }
+                    buffer.flip();
+                    kernel.apply(buffer, position);
+                    position += buffer.remaining();
+                    while (buffer.hasRemaining()) {
+                        out.write(buffer);
+                    }
+                }
+                out.force(true);
+            }
+            Files.move(temp, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+            moved = true;
+            return position;
+        } finally {
+            if (!moved) {
+                Files.deleteIfExists(temp);
+            }
+        }
+    }
+
+    /**
+     * Creates the empty temporary file that will replace target: hidden, in the same directory (so the
+     * final move can be atomic) and with the same permissions where the file system has them.
+     */
+    static Path createTemp(Path target) throws IOException {
+        Path temp = Files.createTempFile(target.getParent(), "." + target.getFileName() + ".", ".tmp");
+        try {
+            Files.setPosixFilePermissions(temp, Files.getPosixFilePermissions(target));
+        } catch (UnsupportedOperationException e) {
+            // Not a POSIX file system; the temporary file keeps its default permissions
+        } catch (IOException e) {
+            Files.deleteIfExists(temp);
+            throw e;
+        }
+        return temp;
+    }
+}
@@ -0,0 +1,111 @@
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+
+/**
+ * The XOR with a repeating password that both encryption and decryption use, eight bytes at a time.
+ * The password is expanded once into a key block whose length is a multiple of both the password
+ * length and 8 (their least common multiple, repeated up to about BLOCK_SIZE bytes), so any run of
+ * data lines up with an unbroken stretch of the block: the inner loop is one 64-bit load from the
+ * data, one from the key block, an XOR and a store, with no per-byte check for the end of the
+ * password. Every byte's key only depends on its offset from the start of the file, so any range can
+ * be processed on its own given that offset. Runs shorter than a word, and the few bytes left at the
+ * end of a run, take the byte-at-a-time path.
+ */
+public class XorKernel {
+
+    private static final int BLOCK_SIZE = 4096; // Approximate key block length, to make wrap-arounds rare
+    private static final VarHandle LONGS = MethodHandles.byteArrayViewVarHandle(long[].class, ByteOrder.nativeOrder());
+
+    private final byte[] password;
+    private final byte[] key; // Password repeated; blockLength bytes plus 7 so a word read never runs off the end
+    private final int blockLength; // Multiple of the password length and of 8
+
+    public XorKernel(byte[] password) {
+        if (password.length == 0) {
+            throw new IllegalArgumentException("The password must not be empty.");
+        }
+        this.password = password.clone();
+        int period = password.length / gcd(password.length, 8) * 8;
+        blockLength = period * Math.max(1, BLOCK_SIZE / period);
+        key = new byte[blockLength + 7];
+        for (int i = 0; i < key.length; i++) {
+            key[i] = password[i % password.length];
+        }
+    }
+
+    /**
+     * XORs data[from, to) in place, data[from] being at the given offset from the start of the file.
+     */
+    public void apply(byte[] data, int from, int to, long position) {
+        int k = (int) (position % password.length);
+        int i = from;
+        while (to - i >= 8) {
+            int end = i + Math.min((to - i) & ~7, (blockLength - k + 7) & ~7); // Whole words before the block wraps
+            for (; i < end; i += 8, k += 8) {
+                LONGS.set(data, i, (long) LONGS.get(data, i) ^ (long) LONGS.get(key, k));
+            }
+            if (k >= blockLength) {
+                k -= blockLength;
+            }
+        }
+        xorBytes(data, i, to, k);
+    }
+
+    /**
+     * XORs the remaining bytes of the buffer in place, the first of them being at the given offset
+     * from the start of the file. The buffer's position and limit are left as they were.
+     */
+    public void apply(ByteBuffer buffer, long position) {
+        if (buffer.hasArray()) {
+            apply(buffer.array(), buffer.arrayOffset() + buffer.position(), buffer.arrayOffset() + buffer.limit(),
+                position);
+            return;
+        }
+        ByteBuffer data = buffer.duplicate().order(ByteOrder.nativeOrder()); // Match the key block's byte order
+        int k = (int) (position % password.length);
+        int i = data.position();
+        int to = data.limit();
+        while (to - i >= 8) {
+            int end = i + Math.min((to - i) & ~7, (blockLength - k + 7) & ~7);
+            for (; i < end; i += 8, k += 8) {
+                data.putLong(i, data.getLong(i) ^ (long) LONGS.get(key, k));
+            }
+            if (k >= blockLength) {
+                k -= blockLength;
+            }
+        }
+        for (; i < to; i++) {
+            data.put(i, (byte) (data.get(i) ^ key[k++]));
+        }
+    }
+
+    /**
+     * The same XOR one byte at a time, the baseline in XorBenchmark.
+     */
+    public void applyScalar(byte[] data, int from, int to, long position) {
+        xorBytes(data, from, to, (int) (position % password.length));
+    }
+
+    /**
+     * XORs data[from, to) with the key block from index k on.
+     */
+    private void xorBytes(byte[] data, int from, int to, int k) {
+        for (int i = from; i < to; i++) {
+            data[i] ^= key[k++];
+            if (k == blockLength) {
+                k = 0;
+            }
+        }
+    }
+
+    private static int gcd(int a, int b) {
+        while (b != 0) {
+            int t = a % b;
+            a = b;
+            b = t;
+        }
+        return a;
+    }
+}
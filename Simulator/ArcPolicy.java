@@ -0,0 +1,116 @@
+/**
+ * Adaptive Replacement Cache (Megiddo and Modha). Resident pages are split between T1 (seen once
+ * recently) and T2 (seen at least twice), and the pages last evicted from each are remembered, without
+ * their contents, in the ghost lists B1 and B2. A hit in a ghost list means that side was evicted too
+ * eagerly, so the target size p of T1 moves towards it; replacement then evicts from T1 or T2
+ * depending on p. All four lists share one pool of 2 * frames nodes in NodeLists, and a PageTable maps
+ * every resident or ghost page to its node.
+ */
+public class ArcPolicy implements ReplacementPolicy {
+
+    private static final int T1 = 0;
+    private static final int T2 = 1;
+    private static final int B1 = 2;
+    private static final int B2 = 3;
+
+    private final int capacity;
+    private final NodeLists lists;
+    private final long[] pageOf; // Page held by each node
+    private final PageTable nodeOf; // Node of each resident or ghost page
+    private final int[] free; // Stack of unused nodes
+    private int freeCount;
+    private int target = 0; // p, the adaptive target size of T1
+    private long victim = -1;
+
+    public ArcPolicy(int frames) {
+        capacity = frames;
+        lists = new NodeLists(2 * frames, 4);
+        pageOf = new long[2 * frames];
+        nodeOf = new PageTable(2 * frames);
+        free = new int[2 * frames];
+        for (int i = 0; i < free.length; i++) {
+            free[i] = free.length - 1 - i;
+        }
+        freeCount = free.length;
+    }
+
+    @Override
+    public boolean reference(long page) {
+        victim = -1;
+        int node = nodeOf.get(page);
+        int list = node < 0 ? NodeLists.NONE : lists.listOf(node);
+
+        if (list == T1 || list == T2) {
+            lists.pushFront(T2, node);
+            return false;
+        }
+        if (list == B1) {
+            target = Math.min(capacity, target + Math.max(lists.size(B2) / lists.size(B1), 1));
+            replace(false);
+            lists.pushFront(T2, node);
+            return true;
+        }
+        if (list == B2) {
+            target = Math.max(0, target - Math.max(lists.size(B1) / lists.size(B2), 1));
+            replace(true);
+            lists.pushFront(T2, node);
+            return true;
+        }
+
+        int t1 = lists.size(T1);
+        int b1 = lists.size(B1);
+        if (t1 + b1 == capacity) {
+            if (t1 < capacity) {
+                discard(lists.tail(B1));
+                replace(false);
+            } else {
+                int lru = lists.tail(T1); // B1 is empty, so the page is dropped without a ghost
+                victim = pageOf[lru];
+                discard(lru);
+            }
+        } else {
+            int total = t1 + b1 + lists.size(T2) + lists.size(B2);
+            if (total >= capacity) {
+                if (total == 2 * capacity) {
+                    discard(lists.tail(B2));
+                }
+                replace(false);
+            }
+        }
+        node = free[--freeCount];
+        pageOf[node] = page;
+        nodeOf.put(page, node);
+        lists.pushFront(T1, node);
+        return true;
+    }
+
+    /**
+     * Evicts the least recently used page of T1 or T2 (as chosen by the target) into its ghost list.
+     */
+    private void replace(boolean inB2) {
+        int t1 = lists.size(T1);
+        int node;
+        if (t1 >= 1 && (t1 > target || (inB2 && t1 == target))) {
+            node = lists.tail(T1);
+            lists.pushFront(B1, node);
+        } else {
+            node = lists.tail(T2);
+            lists.pushFront(B2, node);
+        }
+        victim = pageOf[node];
+    }
+
+    /**
+     * Forgets a node entirely and returns it to the pool.
+     */
+    private void discard(int node) {
+        lists.remove(node);
+        nodeOf.remove(pageOf[node]);
+        free[freeCount++] = node;
+    }
+
+    @Override
+    public long victim() {
+        return victim;
+    }
+}
@@ -0,0 +1,53 @@
+/**
+ * CLOCK, the usual implementation of second-chance replacement. Frames form a circle with a hand and
+ * a reference bit each; a reference sets the bit (a newly loaded page starts with it set). On a fault
+ * the hand sweeps forward clearing set bits and replaces the first frame whose bit is already clear,
+ * so recently used pages get a second chance and the policy approximates LRU without reordering
+ * anything on a hit.
+ */
+public class ClockPolicy implements ReplacementPolicy {
+
+    private final long[] memory; // Page held by each frame
+    private final boolean[] referenced; // Reference bit per frame
+    private final PageTable slot; // Frame holding each resident page
+    private int used = 0;
+    private int hand = 0; // Next frame the clock looks at
+    private long victim = -1;
+
+    public ClockPolicy(int frames) {
+        memory = new long[frames];
+        referenced = new boolean[frames];
+        slot = new PageTable(frames);
+    }
+
+    @Override
+    public boolean reference(long page) {
+        victim = -1;
+        int frame = slot.get(page);
+        if (frame >= 0) {
+            referenced[frame] = true;
+            return false;
+        }
+        if (used < memory.length) {
+            frame = used++;
+        } else {
+            while (referenced[hand]) {
+                referenced[hand] = false;
+                hand = hand + 1 == memory.length ? 0 : hand + 1;
+            }
+            frame = hand;
+            hand = hand + 1 == memory.length ? 0 : hand + 1;
+            victim = memory[frame];
+            slot.remove(victim);
+        }
+        memory[frame] = page;
+        referenced[frame] = true;
+        slot.put(page, frame);
+        return true;
+    }
+
+    @Override
+    public long victim() {
+        return victim;
+    }
+}
@@ -0,0 +1,78 @@
+/**
+ * Count-min sketch of page popularity for W-TinyLFU: four rows of 4-bit saturating counters packed
+ * sixteen to a long. A page's estimated frequency is the smallest of its four counters, which can
+ * only overestimate. After 10 increments per counter of width the sketch ages by halving every
+ * counter at once (a shift and a mask per word), so the estimate tracks recent popularity rather than
+ * all-time counts.
+ */
+public class CountMinSketch {
+
+    private static final int ROWS = 4;
+    private static final long[] SEEDS = {
+        0xc3a5c85c97cb3127L, 0xb492b66fbe98f273L, 0x9ae16a3b2f90404fL, 0xcbf29ce484222325L
+    };
+    private static final long HALF_MASK = 0x7777777777777777L; // Clears the bit shifted in from the next counter
+
+    private final long[] table; // Row r, counter i is nibble (r * width + i) of the table
+    private final int width; // Counters per row, a power of two
+    private final int shift; // 64 - log2(width)
+    private final int sampleSize;
+    private int additions = 0;
+
+    public CountMinSketch(int capacity) {
+        width = Math.max(16, Integer.highestOneBit(Math.max(1, capacity) * 2 - 1));
+        shift = 64 - Integer.numberOfTrailingZeros(width);
+        table = new long[ROWS * width / 16];
+        sampleSize = 10 * width;
+    }
+
+    /**
+     * Counts one more reference to the page.
+     */
+    public void increment(long page) {
+        long h = spread(page);
+        boolean added = false;
+        for (int r = 0; r < ROWS; r++) {
+            int counter = r * width + index(h, r);
+            int word = counter >>> 4;
+            int offset = (counter & 15) << 2;
+            if (((table[word] >>> offset) & 15) != 15) {
+                table[word] += 1L << offset;
+                added = true;
+            }
+        }
+        if (added && ++additions == sampleSize) {
+            for (int i = 0; i < table.length; i++) {
+                table[i] = (table[i] >>> 1) & HALF_MASK;
+            }
+            additions /= 2;
+        }
+    }
+
+    /**
+     * Estimated number of recent references to the page (0 to 15).
+     */
+    public int frequency(long page) {
+        long h = spread(page);
+        int min = 15;
+        for (int r = 0; r < ROWS; r++) {
+            int counter = r * width + index(h, r);
+            min = Math.min(min, (int) (table[counter >>> 4] >>> ((counter & 15) << 2)) & 15);
+        }
+        return min;
+    }
+
+    private int index(long h, int row) {
+        return (int) ((h * SEEDS[row]) >>> shift);
+    }
+
+    /**
+     * Mixes every bit of the page into every bit of the hash (the MurmurHash3 finalizer).
+     */
+    private static long spread(long page) {
+        long h = page;
+        h = (h ^ (h >>> 33)) * 0xff51afd7ed558ccdL;
+        h = (h ^ (h >>> 33)) * 0xc4ceb9fe1a85ec53L;
+        return h ^ (h >>> 33);
+    }
+}
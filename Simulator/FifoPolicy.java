@@ -0,0 +1,42 @@
+/**
+ * First-in first-out replacement. Frames are filled in order and then replaced round robin, the same
+ * order simulateFifo uses. Residency is a PageTable lookup, so every reference is O(1).
+ */
+public class FifoPolicy implements ReplacementPolicy {
+
+    private final long[] memory; // Page held by each frame
+    private final PageTable resident; // Frame holding each resident page
+    private int used = 0;
+    private int next = 0; // Frame replaced on the next fault once memory is full
+    private long victim = -1;
+
+    public FifoPolicy(int frames) {
+        memory = new long[frames];
+        resident = new PageTable(frames);
+    }
+
+    @Override
+    public boolean reference(long page) {
+        victim = -1;
+        if (resident.get(page) >= 0) {
+            return false;
+        }
+        int frame;
+        if (used < memory.length) {
+            frame = used++;
+        } else {
+            frame = next;
+            victim = memory[frame];
+            resident.remove(victim);
+            next = next + 1 == memory.length ? 0 : next + 1;
+        }
+        memory[frame] = page;
+        resident.put(page, frame);
+        return true;
+    }
+
+    @Override
+    public long victim() {
+        return victim;
+    }
+}
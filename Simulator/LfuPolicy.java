@@ -0,0 +1,283 @@
+import java.util.Arrays;
+
+/**
+ * Least frequently used replacement with frequency buckets (the constant-time LFU scheme). Resident
+ * frames are grouped into buckets of equal reference count, and the buckets form a list in ascending
+ * count order, so the victim is always at the tail of the first bucket. Inside a bucket frames are
+ * kept from most to least recently used, which breaks ties in LRU order. Frame and bucket state lives
+ * in int and long arrays sized once, so no boxing or allocation happens per reference.
+ *
+ * With CountMode.PERSISTENT reference counts survive eviction (as in simulateLfu): the count of an
+ * evicted page is parked in a history table keyed by page, which grows with the number of distinct
+ * pages. A page that returns with its old count has to find its place among the buckets, which walks
+ * up from the least frequent one, so faults in this mode cost O(number of distinct resident counts);
+ * only hits are O(1). With CountMode.RESET an evicted page starts again from a count of one and no
+ * history is kept. CountMode.AGING forgets evicted pages the same way and also halves every resident
+ * count each AGING_PERIOD references per frame, so pages that were popular long ago lose their lead;
+ * buckets whose counts meet are merged in recency order. Hits and faults are O(1) in both of these
+ * modes, and the halving is O(frames) once per period, which is O(1) per reference on average.
+ */
+public class LfuPolicy implements ReplacementPolicy {
+
+    /**
+     * Whether reference counts are kept for pages that are no longer resident.
+     */
+    public enum CountMode {
+        PERSISTENT,
+        RESET,
+        AGING
+    }
+
+    public static final int AGING_PERIOD = 8; // References per frame between two halvings of the counts
+    private static final int NONE = -1;
+
+    private final CountMode mode;
+    private final long[] memory; // Page held by each frame
+    private final PageTable slot; // Frame holding each resident page
+    private final PageTable history; // Index into saved for pages evicted with a persistent count
+    private long[] saved = new long[16]; // Reference counts of evicted pages
+    private final int[] bucketOf; // Bucket holding each frame
+    private final int[] prev; // Next more recently used frame in the same bucket
+    private final int[] next; // Next less recently used frame in the same bucket
+    private final long[] bucketCount; // Reference count shared by the frames of each bucket
+    private final int[] bucketHead; // Most recently used frame of each bucket
+    private final int[] bucketTail; // Least recently used frame of each bucket
+    private final int[] bucketPrev; // Bucket with the next lower count
+    private final int[] bucketNext; // Bucket with the next higher count
+    private int lowest = NONE; // Bucket with the lowest count
+    private int freeBucket = 0; // Head of the free bucket list (linked through bucketNext)
+    private int used = 0;
+    private long victim = -1;
+    private final long[] stamp; // Time of the last reference to each frame, to merge buckets when aging
+    private final long agingPeriod;
+    private long clock = 0;
+
+    public LfuPolicy(int frames) {
+        this(frames, CountMode.PERSISTENT);
+    }
+
+    public LfuPolicy(int frames, CountMode mode) {
+        this.mode = mode;
+        memory = new long[frames];
+        slot = new PageTable(frames);
+        history = mode == CountMode.PERSISTENT ? new PageTable(frames) : null;
+        stamp = mode == CountMode.AGING ? new long[frames] : null;
+        agingPeriod = (long) AGING_PERIOD * frames;
+        bucketOf = new int[frames];
+        prev = new int[frames];
+        next = new int[frames];
+        int buckets = frames + 1; // At most one bucket per frame, plus one being created
+        bucketCount = new long[buckets];
+        bucketHead = new int[buckets];
+        bucketTail = new int[buckets];
+        bucketPrev = new int[buckets];
+        bucketNext = new int[buckets];
+        for (int b = 0; b < buckets; b++) {
+            bucketNext[b] = b + 1 < buckets ? b + 1 : NONE;
+        }
+    }
+
+    @Override
+    public boolean reference(long page) {
+        victim = -1;
+        clock += 1;
+        if (stamp != null && clock % agingPeriod == 0) {
+            age();
+        }
+        int frame = slot.get(page);
+        if (frame != NONE) {
+            if (stamp != null) {
+                stamp[frame] = clock;
+            }
+            int from = bucketOf[frame];
+            long count = bucketCount[from] + 1;
+            int to = bucketNext[from];
+            if (to == NONE || bucketCount[to] != count) {
+                to = newBucket(count, from, to);
+            }
+            removeFrame(frame);
+            addFrame(to, frame);
+            return false;
+        }
+
+        if (used < memory.length) {
+            frame = used++;
+        } else {
+            frame = bucketTail[lowest];
+            victim = memory[frame];
+            slot.remove(victim);
+            if (history != null) {
+                save(victim, bucketCount[bucketOf[frame]]);
+            }
+            removeFrame(frame);
+        }
+        memory[frame] = page;
+        slot.put(page, frame);
+        if (stamp != null) {
+            stamp[frame] = clock;
+        }
+        long count = 1;
+        if (history != null) {
+            int index = history.get(page);
+            if (index >= 0) {
+                count += saved[index];
+            }
+        }
+
+        int before = NONE;
+        int at = lowest;
+        while (at != NONE && bucketCount[at] < count) {
+            before = at;
+            at = bucketNext[at];
+        }
+        if (at == NONE || bucketCount[at] != count) {
+            at = newBucket(count, before, at);
+        }
+        addFrame(at, frame);
+        return true;
+    }
+
+    /**
+     * Halves the count of every bucket. Counts stay in ascending order, but two neighbours (2k and
+     * 2k + 1) can end up equal, in which case they are merged.
+     */
+    private void age() {
+        int b = lowest;
+        while (b != NONE) {
+            int after = bucketNext[b];
+            bucketCount[b] >>>= 1;
+            int before = bucketPrev[b];
+            if (before != NONE && bucketCount[before] == bucketCount[b]) {
+                merge(before, b);
+            }
+            b = after;
+        }
+    }
+
+    /**
+     * Moves the frames of bucket b into bucket a, its lower neighbour, keeping them from most to least
+     * recently used, and returns b to the free list.
+     */
+    private void merge(int a, int b) {
+        int x = bucketHead[a];
+        int y = bucketHead[b];
+        int head = NONE;
+        int tail = NONE;
+        while (x != NONE || y != NONE) {
+            int frame;
+            if (y == NONE || x != NONE && stamp[x] > stamp[y]) {
+                frame = x;
+                x = next[x];
+            } else {
+                frame = y;
+                y = next[y];
+            }
+            bucketOf[frame] = a;
+            prev[frame] = tail;
+            next[frame] = NONE;
+            if (tail == NONE) {
+                head = frame;
+            } else {
+                next[tail] = frame;
+            }
+            tail = frame;
+        }
+        bucketHead[a] = head;
+        bucketTail[a] = tail;
+        int after = bucketNext[b];
+        bucketNext[a] = after;
+        if (after != NONE) {
+            bucketPrev[after] = a;
+        }
+        bucketNext[b] = freeBucket;
+        freeBucket = b;
+    }
+
+    /**
+     * Records the count of an evicted page, reusing its history entry if it had one.
+     */
+    private void save(long page, long count) {
+        int index = history.get(page);
+        if (index < 0) {
+            index = history.size();
+            if (index == saved.length) {
+                saved = Arrays.copyOf(saved, index * 2);
+            }
+            history.put(page, index);
+        }
+        saved[index] = count;
+    }
+
+    /**
+     * Takes a bucket from the free list and links it between before and after.
+     */
+    private int newBucket(long value, int before, int after) {
+        int b = freeBucket;
+        freeBucket = bucketNext[b];
+        bucketCount[b] = value;
+        bucketHead[b] = NONE;
+        bucketTail[b] = NONE;
+        bucketPrev[b] = before;
+        bucketNext[b] = after;
+        if (before == NONE) {
+            lowest = b;
+        } else {
+            bucketNext[before] = b;
+        }
+        if (after != NONE) {
+            bucketPrev[after] = b;
+        }
+        return b;
+    }
+
+    /**
+     * Adds the frame as the most recently used member of bucket b.
+     */
+    private void addFrame(int b, int frame) {
+        bucketOf[frame] = b;
+        prev[frame] = NONE;
+        next[frame] = bucketHead[b];
+        if (bucketHead[b] == NONE) {
+            bucketTail[b] = frame;
+        } else {
+            prev[bucketHead[b]] = frame;
+        }
+        bucketHead[b] = frame;
+    }
+
+    /**
+     * Unlinks the frame from its bucket, returning the bucket to the free list once it is empty.
+     */
+    private void removeFrame(int frame) {
+        int b = bucketOf[frame];
+        if (prev[frame] == NONE) {
+            bucketHead[b] = next[frame];
+        } else {
+            next[prev[frame]] = next[frame];
+        }
+        if (next[frame] == NONE) {
+            bucketTail[b] = prev[frame];
+        } else {
+            prev[next[frame]] = prev[frame];
+        }
+        if (bucketHead[b] == NONE) {
+            int before = bucketPrev[b];
+            int after = bucketNext[b];
+            if (before == NONE) {
+                lowest = after;
+            } else {
+                bucketNext[before] = after;
+            }
+            if (after != NONE) {
+                bucketPrev[after] = before;
+            }
+            bucketNext[b] = freeBucket;
+            freeBucket = b;
+        }
+    }
+
+    @Override
+    public long victim() {
+        return victim;
+    }
+}
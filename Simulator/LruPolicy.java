@@ -0,0 +1,83 @@
+/**
+ * Least recently used replacement in O(1) per reference. Frames are linked into an intrusive doubly
+ * linked list (prev/next arrays indexed by frame) ordered from most to least recently used, and a
+ * PageTable gives the frame of each resident page. A hit moves its frame to the front, a
+ * fault reuses the frame at the back. Nothing is allocated after construction, so caches with
+ * millions of frames are as cheap per reference as small ones.
+ */
+public class LruPolicy implements ReplacementPolicy {
+
+    private static final int NONE = -1;
+
+    private final long[] memory; // Page held by each frame
+    private final int[] prev; // Next more recently used frame
+    private final int[] next; // Next less recently used frame
+    private final PageTable slot; // Frame holding each resident page
+    private int head = NONE; // Most recently used frame
+    private int tail = NONE; // Least recently used frame
+    private int used = 0;
+    private long victim = -1;
+
+    public LruPolicy(int frames) {
+        memory = new long[frames];
+        prev = new int[frames];
+        next = new int[frames];
+        slot = new PageTable(frames);
+    }
+
+    @Override
+    public boolean reference(long page) {
+        victim = -1;
+        int frame = slot.get(page);
+        if (frame != NONE) {
+            if (frame != head) {
+                unlink(frame);
+                pushFront(frame);
+            }
+            return false;
+        }
+        if (used < memory.length) {
+            frame = used++;
+        } else {
+            frame = tail;
+            unlink(frame);
+            victim = memory[frame];
+            slot.remove(victim);
+        }
+        memory[frame] = page;
+        slot.put(page, frame);
+        pushFront(frame);
+        return true;
+    }
+
+    private void unlink(int frame) {
+        int before = prev[frame];
+        int after = next[frame];
+        if (before == NONE) {
+            head = after;
+        } else {
+            next[before] = after;
+        }
+        if (after == NONE) {
+            tail = before;
+        } else {
+            prev[after] = before;
+        }
+    }
+
+    private void pushFront(int frame) {
+        prev[frame] = NONE;
+        next[frame] = head;
+        if (head == NONE) {
+            tail = frame;
+        } else {
+            prev[head] = frame;
+        }
+        head = frame;
+    }
+
+    @Override
+    public long victim() {
+        return victim;
+    }
+}
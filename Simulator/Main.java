@@ -1,6 +1,11 @@
 import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.file.Files;
+import java.nio.file.Paths;
 import java.util.ArrayList;
-import java.util.HashMap;
+import java.util.Arrays;
+import java.util.List;
 import java.util.Random;
 import java.util.Scanner;
 
@@ -14,11 +19,11 @@ public class Main {
     public static final String ANSI_RESET = "\u001B[0m";
 
     static final int MIN_VIRTUAL_FRAME = 0;
-    static final int MAX_VIRTUAL_FRAME = 9;
+    static final int MAX_VIRTUAL_FRAME = 9; // Upper bound for generated reference strings only
     static final int MIN_PHYSICAL_FRAME = 1;
     static final int MAX_PHYSICAL_FRAME = 8;
 
-    static ArrayList < Integer > referenceString = new ArrayList < > ();
+    static ArrayList < Long > referenceString = new ArrayList < > ();
 
     /**
      * Displays menu options for user to select from.
@@ -35,6 +40,7 @@ public class Main {
         System.out.println("5 - Simulate OPT");
         System.out.println("6 - Simulate LRU");
         System.out.println("7 - Simulate LFU");
+        System.out.println("8 - Compare all policies");
         System.out.print(ANSI_BOLD + "\nPlease select from the above menu options (default 0): " + ANSI_RESET);
     }
 
@@ -69,6 +75,9 @@ public class Main {
             case 7:
                 simulateLfu(input, referenceString); // Simulate LFU
                 break;
+            case 8:
+                comparePolicies(input, referenceString); // Hit ratio of every engine policy
+                break;
             default:
                 exitProgram(); // Prints exit message and ends program
         }
@@ -86,32 +95,33 @@ public class Main {
 
     /**
      * A reference string will be read from the keyboard and stored in a buffer. Each value of
-     * the reference string will be verified and validated (or rejected).
+     * the reference string will be verified and validated (or rejected); any 64-bit page number
+     * from 0 up is accepted.
      *
      * Using option 1 again will result in overwriting the old reference string.
      */
-    private static ArrayList < Integer > getReferenceString(Scanner input) {
+    private static ArrayList < Long > getReferenceString(Scanner input) {
         System.out.println(
             "\nPlease enter a reference string [" +
             MIN_VIRTUAL_FRAME +
             " - " +
-            MAX_VIRTUAL_FRAME +
+            Long.MAX_VALUE +
             "]:\n"
         );
 
         String[] string = input.nextLine().split("\\s+");
-        ArrayList < Integer > refString = new ArrayList < > ();
-        int temp;
+        ArrayList < Long > refString = new ArrayList < > ();
+        long temp;
 
         for (int i = 0; i < string.length; i++) {
             try {
-                temp = Integer.parseInt(string[i]);
+                temp = Long.parseLong(string[i]);
             } catch (NumberFormatException e) {
                 System.out.println("\nUh-oh. Reference string must only contain numbers.");
                 System.out.println(string[i] + " is not a number.");
                 return null;
             }
-            if (temp > MAX_VIRTUAL_FRAME || temp < MIN_VIRTUAL_FRAME) {
+            if (temp < MIN_VIRTUAL_FRAME) {
                 System.out.println(string[i] + " is not within the required range.");
                 return getReferenceString(input);
             }
@@ -123,21 +133,41 @@ public class Main {
 
     /**
      * A reference string will be randomly generated; the length of the reference string will be 
-     * given by the user interactively. The string will be stored in a buffer.
+     * given by the user interactively, as well as the workload (uniform by default, or one of the
+     * SyntheticTrace generators over the same page range). The string will be stored in a buffer.
      *
      * Using option 2 more than once will result in overwriting the old reference string.
      */
-    private static ArrayList < Integer > generateReferenceString(Scanner input) {
+    private static ArrayList < Long > generateReferenceString(Scanner input) {
         System.out.println("\nPlease enter the desired string length: ");
 
         String lengthString = input.nextLine();
         int length = Integer.parseInt(lengthString);
-        ArrayList < Integer > referenceString = new ArrayList < > ();
+        ArrayList < Long > referenceString = new ArrayList < > ();
         Random random = new Random();
 
-        for (int i = 0; i < length; i++) {
-            referenceString
-                .add(i, random.nextInt((MAX_VIRTUAL_FRAME - MIN_VIRTUAL_FRAME) + 1) + MIN_VIRTUAL_FRAME);
+        System.out.println("\nPlease enter the workload (uniform, zipf, phase, scan or loop; default uniform): ");
+        String workload = input.nextLine().trim();
+
+        if (workload.isEmpty()) {
+            for (int i = 0; i < length; i++) {
+                referenceString
+                    .add(i, (long) random.nextInt((MAX_VIRTUAL_FRAME - MIN_VIRTUAL_FRAME) + 1) + MIN_VIRTUAL_FRAME);
+            }
+        } else {
+            long seed = random.nextLong();
+            long[] pages;
+            try {
+                pages = TraceReader.readAll(
+                    SyntheticTrace.parse(workload, MAX_VIRTUAL_FRAME - MIN_VIRTUAL_FRAME + 1, length, seed));
+            } catch (IllegalArgumentException | IOException e) {
+                System.out.println("\nUh-oh. " + e.getMessage());
+                return referenceString;
+            }
+            for (long page: pages) {
+                referenceString.add(page + MIN_VIRTUAL_FRAME);
+            }
+            System.out.println("\n(seed " + seed + ")");
         }
 
         System.out.println("\nReference string successfully generated!");
@@ -150,7 +180,7 @@ public class Main {
      * Will display the stored reference string; if there is no reference string stored yet, an
      * error message will be displayed.
      */
-    private static String[][] generateTable(ArrayList < Integer > referenceString, int frames) {
+    private static String[][] generateTable(ArrayList < Long > referenceString, int frames) {
         String[][] table = new String[frames + 3][referenceString.size() + 1];
         table[0][0] = "Reference String";
 
@@ -192,7 +222,7 @@ public class Main {
      * The user will press a key after each step of the simulation to continue the simulation.
      * The total number of faults will be displayed at the end of the simulation.
      */
-    private static void simulateFifo(Scanner input, ArrayList < Integer > referenceString) {
+    private static void simulateFifo(Scanner input, ArrayList < Long > referenceString) {
         System.out.println(
             "\nPlease enter the number of physical frames [" +
             MIN_PHYSICAL_FRAME +
@@ -202,10 +232,12 @@ public class Main {
         );
 
         int frames = Integer.parseInt(input.nextLine());
-        ArrayList < Integer > memory = new ArrayList < > (frames);
+        long[] memory = new long[frames]; // Page held by each frame
+        PageTable resident = new PageTable(frames); // Frame holding each resident page
+        int used = 0;
         String[][] table = generateTable(referenceString, frames);
 
-        int victim = -1;
+        long victim = -1;
         boolean fault;
         int currentFrame = 0;
         int faultCount = 0;
@@ -221,9 +253,12 @@ public class Main {
         }
 
         for (int i = 0; i < referenceString.size(); i++) {
-            if (!memory.contains(referenceString.get(i))) {
-                if (memory.size() < frames) {
-                    memory.add(currentFrame, referenceString.get(i));
+            long page = referenceString.get(i);
+            if (resident.get(page) < 0) {
+                if (used < frames) {
+                    memory[currentFrame] = page;
+                    resident.put(page, currentFrame);
+                    ++used;
                     ++currentFrame;
                     fault = true;
                     faultCount++;
@@ -233,15 +268,17 @@ public class Main {
                     }
                     fault = true;
                     faultCount++;
-                    victim = memory.get(currentFrame);
-                    memory.set(currentFrame, referenceString.get(i));
+                    victim = memory[currentFrame];
+                    resident.remove(victim);
+                    memory[currentFrame] = page;
+                    resident.put(page, currentFrame);
                     ++currentFrame;
                 }
             } else {
                 fault = false;
             }
-            for (int j = 0; j < memory.size(); ++j) {
-                table[j + 1][i + 1] = String.valueOf(memory.get(j));
+            for (int j = 0; j < used; ++j) {
+                table[j + 1][i + 1] = String.valueOf(memory[j]);
             }
             if (fault) {
                 table[frames + 1][i + 1] = "F";
@@ -269,7 +306,7 @@ public class Main {
      * The user will press a key after each step of the simulation to continue the simulation.
      * The total number of faults will be displayed at the end of the simulation.
      */
-    private static void simulateOpt(Scanner input, ArrayList < Integer > referenceString) {
+    private static void simulateOpt(Scanner input, ArrayList < Long > referenceString) {
         System.out.println(
             "\nPlease enter the number of physical frames [" +
             MIN_PHYSICAL_FRAME +
@@ -279,15 +316,17 @@ public class Main {
         );
 
         int frames = Integer.parseInt(input.nextLine());
-        ArrayList < Integer > memory = new ArrayList < > (frames);
-        ArrayList < Integer > refList = new ArrayList < > ();
+        long[] memory = new long[frames]; // Page held by each frame
+        PageTable resident = new PageTable(frames); // Frame holding each resident page
+        int used = 0;
+        ArrayList < Long > refList = new ArrayList < > ();
 
-        for (int i: referenceString)
+        for (long i: referenceString)
             refList.add(i); // Create a reference list to search future
 
         String[][] table = generateTable(referenceString, frames);
 
-        int victim = -1;
+        long victim = -1;
         boolean fault;
         int currentFrame = 0;
         int faultCount = 0;
@@ -305,19 +344,23 @@ public class Main {
         }
 
         for (int i = 0; i < referenceString.size(); i++) {
-            if (!memory.contains(referenceString.get(i))) {
-                if (memory.size() < frames) {
-                    memory.add(currentFrame, referenceString.get(i));
-                    refList.remove((Integer) referenceString.get(i));
+            long page = referenceString.get(i);
+            if (resident.get(page) < 0) {
+                if (used < frames) {
+                    memory[currentFrame] = page;
+                    resident.put(page, currentFrame);
+                    refList.remove((Long) page);
+                    ++used;
                     ++currentFrame;
                     fault = true;
                     faultCount++;
                 } else {
                     fault = true;
                     faultCount++;
-                    int temp = refList.get(0);
+                    long temp = refList.get(0);
                     refList.remove(0);
-                    for (int m: memory) {
+                    for (int f = 0; f < used; f++) {
+                        long m = memory[f];
                         index = refList.indexOf(m);
                         if (index == -1) {
                             victim = m;
@@ -328,15 +371,17 @@ public class Main {
                             max = index;
                         }
                     }
-                    memory.set(memory.indexOf(victim), temp);
+                    int frame = resident.remove(victim);
+                    memory[frame] = temp;
+                    resident.put(temp, frame);
                     max = -1;
                 }
             } else {
                 fault = false;
                 refList.remove(0);
             }
-            for (int j = 0; j < memory.size(); ++j) {
-                table[j + 1][i + 1] = String.valueOf(memory.get(j));
+            for (int j = 0; j < used; ++j) {
+                table[j + 1][i + 1] = String.valueOf(memory[j]);
             }
             if (fault) {
                 table[frames + 1][i + 1] = "F";
@@ -362,7 +407,7 @@ public class Main {
      * The user will press a key after each step of the simulation to continue the simulation.
      * The total number of faults will be displayed at the end of the simulation.
      */
-    private static void simulateLru(Scanner input, ArrayList < Integer > referenceString) {
+    private static void simulateLru(Scanner input, ArrayList < Long > referenceString) {
         System.out.println(
             "\nPlease enter the number of physical frames [" +
             MIN_PHYSICAL_FRAME +
@@ -372,11 +417,13 @@ public class Main {
         );
 
         int frames = Integer.parseInt(input.nextLine());
-        ArrayList < Integer > memory = new ArrayList < > (frames);
+        long[] memory = new long[frames]; // Page held by each frame
+        PageTable resident = new PageTable(frames); // Frame holding each resident page
+        int used = 0;
         int[] lruCount = new int[frames];
         String[][] table = generateTable(referenceString, frames);
 
-        int victim = -1;
+        long victim = -1;
         boolean fault;
         int currentFrame = 0;
         int faultCount = 0;
@@ -394,13 +441,16 @@ public class Main {
         }
 
         for (int i = 0; i < referenceString.size(); ++i) {
-            if (!memory.contains(referenceString.get(i))) {
-                if (memory.size() < frames) {
-                    memory.add(currentFrame, referenceString.get(i));
+            long page = referenceString.get(i);
+            if (resident.get(page) < 0) {
+                if (used < frames) {
+                    memory[currentFrame] = page;
+                    resident.put(page, currentFrame);
                     for (int j = 0; j < lruCount.length; ++j) {
                         lruCount[j]++;
                     }
                     lruCount[currentFrame] = 1;
+                    ++used;
                     ++currentFrame;
                     fault = true;
                     faultCount++;
@@ -415,23 +465,24 @@ public class Main {
                             index = j;
                         }
                     }
-                    victim = memory.get(index);
-                    memory.set(index, referenceString.get(i));
+                    victim = memory[index];
+                    resident.remove(victim);
+                    memory[index] = page;
+                    resident.put(page, index);
                     for (int j = 0; j < lruCount.length; ++j) {
                         lruCount[j]++;
                     }
-                    lruCount[memory.indexOf(referenceString.get(i))] = 1;
+                    lruCount[index] = 1;
                 }
             } else {
                 fault = false;
                 for (int j = 0; j < lruCount.length; ++j) {
                     lruCount[j]++;
                 }
-                lruCount[memory
-                    .indexOf(referenceString.get(i))] = 1;
+                lruCount[resident.get(page)] = 1;
             }
-            for (int j = 0; j < memory.size(); ++j) {
-                table[j + 1][i + 1] = String.valueOf(memory.get(j));
+            for (int j = 0; j < used; ++j) {
+                table[j + 1][i + 1] = String.valueOf(memory[j]);
             }
             if (fault) {
                 table[frames + 1][i + 1] = "F";
@@ -458,7 +509,7 @@ public class Main {
      * The user will press a key after each step of the simulation to continue the simulation.
      * The total number of faults will be displayed at the end of the simulation.
      */
-    private static void simulateLfu(Scanner input, ArrayList < Integer > referenceString) {
+    private static void simulateLfu(Scanner input, ArrayList < Long > referenceString) {
         System.out.println(
             "\nPlease enter the number of physical frames [" +
             MIN_PHYSICAL_FRAME +
@@ -468,11 +519,13 @@ public class Main {
         );
 
         int frames = Integer.parseInt(input.nextLine());
-        ArrayList < Integer > memory = new ArrayList < > (frames);
-        HashMap < Integer, Integer > lfuCount = new HashMap < > ();
+        long[] memory = new long[frames]; // Page held by each frame
+        PageTable resident = new PageTable(frames); // Frame holding each resident page
+        int used = 0;
+        PageTable lfuCount = new PageTable(frames); // Reference count of every page seen so far
         String[][] table = generateTable(referenceString, frames);
 
-        int victim = -1;
+        long victim = -1;
         boolean fault;
         int currentFrame = 0;
         int faultCount = 0;
@@ -491,42 +544,47 @@ public class Main {
         }
 
         for (int i = 0; i < referenceString.size(); ++i) {
-            if (!memory.contains(referenceString.get(i))) {
-                if (memory.size() < frames) {
-                    memory.add(currentFrame, referenceString.get(i));
-                    lfuCount.put(referenceString.get(i), 1);
+            long page = referenceString.get(i);
+            if (resident.get(page) < 0) {
+                if (used < frames) {
+                    memory[currentFrame] = page;
+                    resident.put(page, currentFrame);
+                    lfuCount.put(page, 1);
+                    ++used;
                     ++currentFrame;
                     fault = true;
                     faultCount++;
                 } else {
-                    min = lfuCount.get(memory.get(0));
+                    min = lfuCount.get(memory[0]);
                     index = 0;
                     fault = true;
                     faultCount++;
-                    for (int j = 0; j < memory.size(); ++j) {
-                        if (lfuCount.get(memory.get(j)) < min) {
-                            min = lfuCount.get(memory.get(j));
+                    for (int j = 0; j < used; ++j) {
+                        if (lfuCount.get(memory[j]) < min) {
+                            min = lfuCount.get(memory[j]);
                             index = j;
                         }
                     }
-                    victim = memory.get(index);
-                    memory.set(index, referenceString.get(i));
-                    if (lfuCount.containsKey(referenceString.get(i))) {
-                        count = lfuCount.get(referenceString.get(i));
+                    victim = memory[index];
+                    resident.remove(victim);
+                    memory[index] = page;
+                    resident.put(page, index);
+                    if (lfuCount.get(page) >= 0) {
+                        count = lfuCount.get(page);
                         count++;
-                        lfuCount.put(referenceString.get(i), count);
+                        lfuCount.put(page, count);
                     } else {
-                        lfuCount.put(referenceString.get(i), 1);
+                        lfuCount.put(page, 1);
                     }
                 }
             } else {
                 fault = false;
-                count = lfuCount.get(referenceString.get(i));
+                count = lfuCount.get(page);
                 count++;
-                lfuCount.put(referenceString.get(i), count);
+                lfuCount.put(page, count);
             }
-            for (int j = 0; j < memory.size(); ++j) {
-                table[j + 1][i + 1] = String.valueOf(memory.get(j));
+            for (int j = 0; j < used; ++j) {
+                table[j + 1][i + 1] = String.valueOf(memory[j]);
             }
             if (fault) {
                 table[frames + 1][i + 1] = "F";
@@ -548,12 +606,229 @@ public class Main {
     }
 
     /**
-     * The menu is displayed and the user must select an option (a number between 0 and 7). The 
+     * Runs every policy of the headless engine (the four above plus CLOCK, ARC, 2Q and W-TinyLFU) over
+     * the stored reference string with the same number of frames, and prints their faults and hit
+     * ratios side by side.
+     */
+    private static void comparePolicies(Scanner input, ArrayList < Long > referenceString) {
+        if (referenceString.isEmpty()) {
+            System.out.println("\nUh-oh. No reference string set.");
+            return;
+        }
+        System.out.println("\nPlease enter the number of physical frames (" + MIN_PHYSICAL_FRAME + " or more):\n");
+
+        int frames = Integer.parseInt(input.nextLine());
+        if (frames < MIN_PHYSICAL_FRAME) {
+            System.out.println("\nUh-oh. " + frames + " is not within the required range.");
+            return;
+        }
+        long[] trace = new long[referenceString.size()];
+        for (int i = 0; i < trace.length; i++) {
+            trace[i] = referenceString.get(i);
+        }
+
+        System.out.println(ANSI_BOLD + "\nPolicy comparison (" + frames + " frames)\n" + ANSI_RESET);
+        System.out.printf("%-18s%8s%12s%n", "Policy", "Faults", "Hit Ratio");
+        for (Policy policy: Policy.values()) {
+            SimulationResult result = SimulationEngine.simulate(policy, trace, frames, false);
+            System.out.printf("%-18s%8d%12.4f%n", policy, result.faults, result.hitRatio());
+        }
+    }
+
+    /**
+     * Runs the headless simulation engine from command line arguments instead of the menu:
+     *
+     * java Main --policy=lru --frames=3 7 0 1 2 0 3 0 4
+     *
+     * --policy may be fifo, opt, lru, lfu, lfu_reset, lfu_aging, clock, arc, 2q, w_tinylfu or all
+     * (default), --victims also prints the victim of every reference. --curve prints the LRU and OPT
+     * miss-ratio curves for every number of frames as CSV instead (--curve=FILE writes them to FILE),
+     * and needs no --frames. Nothing is read from the keyboard.
+     *
+     * java Main --policy=lru --frames=4096 --trace=pages.bin --format=int32
+     *
+     * streams the reference string from a file instead (--format may be text, int32 or int64, text by
+     * default), so traces larger than memory can be simulated. OPT needs the whole trace, so it is
+     * skipped (with a note) when it runs among other policies; --policy=opt alone loads the trace.
+     *
+     * java Main --sweep=1,2,4,8,16 --trace=pages.bin --format=int32 --out=sweep.csv
+     *
+     * runs every selected policy at every listed frame count concurrently over one shared copy of the
+     * trace (file or command line) and writes the result table as CSV (to standard output without
+     * --out). Sweeps load the trace into memory, so OPT is included.
+     *
+     * Pages may be any non-negative 64-bit number. With --page-size=BYTES (a power of two) the values
+     * given, on the command line or in a trace file, are byte addresses and are turned into pages by
+     * dropping the offset within the page.
+     *
+     * java Main --frames=1000 --workload=zipf:100000:0.99 --length=1000000000 --seed=7
+     *
+     * generates a synthetic reference string instead (uniform, zipf, phase, scan or loop, see
+     * SyntheticTrace.parse) and streams it like a trace file; the same seed gives the same trace.
+     * Sweeps and curves over a trace file or workload load it into memory once.
+     */
+    private static void runBatch(String[] args) throws IOException {
+        String policyName = "all";
+        int frames = -1;
+        boolean showVictims = false;
+        String curve = null; // "" for standard output
+        String traceFile = null;
+        String workload = null;
+        long workloadLength = 1_000_000;
+        long seed = 1;
+        int[] sweep = null; // Frame counts to sweep over
+        String out = null;
+        TraceFormat format = TraceFormat.TEXT;
+        long[] trace = new long[args.length];
+        int length = 0;
+        int pageShift = 0; // log2 of --page-size, 0 when the trace already holds pages
+
+        for (String arg: args) {
+            try {
+                if (arg.startsWith("--policy=")) {
+                    policyName = arg.substring(9);
+                } else if (arg.startsWith("--frames=")) {
+                    frames = Integer.parseInt(arg.substring(9));
+                } else if (arg.equals("--victims")) {
+                    showVictims = true;
+                } else if (arg.equals("--curve")) {
+                    curve = "";
+                } else if (arg.startsWith("--curve=")) {
+                    curve = arg.substring(8);
+                } else if (arg.startsWith("--trace=")) {
+                    traceFile = arg.substring(8);
+                } else if (arg.startsWith("--sweep=")) {
+                    sweep = Arrays.stream(arg.substring(8).split(",")).mapToInt(f -> Integer.parseInt(f.trim())).toArray();
+                } else if (arg.startsWith("--workload=")) {
+                    workload = arg.substring(11);
+                } else if (arg.startsWith("--length=")) {
+                    workloadLength = Long.parseLong(arg.substring(9));
+                } else if (arg.startsWith("--seed=")) {
+                    seed = Long.parseLong(arg.substring(7));
+                } else if (arg.startsWith("--out=")) {
+                    out = arg.substring(6);
+                } else if (arg.startsWith("--format=")) {
+                    format = TraceFormat.parse(arg.substring(9));
+                } else if (arg.startsWith("--page-size=")) {
+                    long pageSize = Long.parseLong(arg.substring(12));
+                    if (pageSize < 1 || Long.bitCount(pageSize) != 1) {
+                        System.out.println("Uh-oh. The page size must be a power of two.");
+                        return;
+                    }
+                    pageShift = Long.numberOfTrailingZeros(pageSize);
+                } else if (arg.startsWith("--")) {
+                    System.out.println("Uh-oh. Unknown option " + arg + ".");
+                    return;
+                } else {
+                    trace[length++] = Long.parseUnsignedLong(arg); // Raw 64-bit addresses may use the sign bit
+                }
+            } catch (NumberFormatException e) {
+                System.out.println("Uh-oh. " + arg + " is not a valid number.");
+                return;
+            }
+        }
+        trace = Arrays.copyOf(trace, length);
+        SimulationEngine.toPages(trace, pageShift);
+        for (long page: trace) {
+            if (page < 0) { // Only possible without --page-size
+                System.out.println("Uh-oh. " + Long.toUnsignedString(page) + " is too large for a page number, give"
+                    + " --page-size=BYTES if the values are byte addresses.");
+                return;
+            }
+        }
+        Policy[] policies = policyName.equalsIgnoreCase("all") ? Policy.values() : new Policy[] {Policy.parse(policyName)};
+
+        boolean streamed = traceFile != null || workload != null;
+        if (streamed && (sweep != null || curve != null || policies.length == 1 && policies[0] == Policy.OPT)) {
+            trace = TraceReader.readAll(openSource(traceFile, format, pageShift, workload, workloadLength, seed));
+            streamed = false;
+        }
+
+        if (sweep != null) {
+            List<SimulationResult> results = new SweepRunner(trace).run(policies, sweep);
+            if (out == null) {
+                SweepRunner.writeTable(new OutputStreamWriter(System.out), results);
+            } else {
+                try (Writer writer = Files.newBufferedWriter(Paths.get(out))) {
+                    SweepRunner.writeTable(writer, results);
+                }
+                System.out.println(results.size() + " results written to " + out + ".");
+            }
+            return;
+        }
+
+        if (streamed) {
+            if (frames < MIN_PHYSICAL_FRAME || showVictims) {
+                System.out.println("Uh-oh. A trace file or workload needs --frames=N and does not support --victims.");
+                return;
+            }
+            for (Policy policy: policies) {
+                if (policy != Policy.OPT) {
+                    TraceReader source = openSource(traceFile, format, pageShift, workload, workloadLength, seed);
+                    System.out.println(SimulationEngine.simulate(policy, source, frames));
+                }
+            }
+            if (policies.length > 1) {
+                System.out.println("OPT needs the whole trace in memory and was skipped, use --policy=opt to load it.");
+            }
+            return;
+        }
+
+        if (curve != null) {
+            long[] lru = StackDistanceAnalyzer.lruMisses(trace);
+            long[] opt = StackDistanceAnalyzer.optMisses(trace);
+            if (curve.isEmpty()) {
+                StackDistanceAnalyzer.writeCsv(new OutputStreamWriter(System.out), trace.length, lru, opt);
+            } else {
+                try (Writer writer = Files.newBufferedWriter(Paths.get(curve))) {
+                    StackDistanceAnalyzer.writeCsv(writer, trace.length, lru, opt);
+                }
+                System.out.println("Miss-ratio curves written to " + curve + ".");
+            }
+            return;
+        }
+
+        if (frames < MIN_PHYSICAL_FRAME) {
+            System.out.println("Uh-oh. Please give the number of physical frames with --frames=N.");
+            return;
+        }
+
+        for (Policy policy: policies) {
+            SimulationResult result = SimulationEngine.simulate(policy, trace, frames, showVictims);
+            System.out.println(result);
+            if (showVictims) {
+                System.out.println("Victims: " + Arrays.toString(result.victims));
+            }
+        }
+    }
+
+    /**
+     * Opens the trace file if one was given, otherwise a fresh generator for the workload.
+     */
+    private static TraceReader openSource(String traceFile, TraceFormat format, int pageShift, String workload,
+        long length, long seed) throws IOException {
+        if (traceFile != null) {
+            return format.open(Paths.get(traceFile), pageShift);
+        }
+        return SyntheticTrace.parse(workload, 100_000, length, seed);
+    }
+
+    /**
+     * The menu is displayed and the user must select an option (a number between 0 and 8). The 
      * action corresponding to the selection is performed, then the menu is displayed again and the 
      * user can choose another option. This cycle is repeated until the user selects 0, which exits the 
      * loop and ends the program.
      */
     public static void main(String[] args) throws IOException {
+        if (args.length > 0) {
+            try {
+                runBatch(args); // Headless mode, see runBatch
+            } catch (IllegalArgumentException e) {
+                System.out.println("Uh-oh. " + e.getMessage()); // Unknown policy, format or workload, or a negative page
+            }
+            return;
+        }
+
         Scanner optionSelection = new Scanner(System.in);
 
         System.out.print(ANSI_FLUSH);
@@ -0,0 +1,91 @@
+import java.io.IOException;
+import java.nio.ByteOrder;
+import java.nio.IntBuffer;
+import java.nio.LongBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Reads a binary trace of little-endian int or long page numbers by memory-mapping it one window at
+ * a time. A single mapping is limited to 2 GB, so a trace of tens of GB is walked through consecutive
+ * windows; only the current window is referenced, and the operating system pages it in and out as
+ * needed, so the trace never has to fit on the heap. 32-bit values are unsigned, so 32-bit byte
+ * addresses above 2 GB are read correctly.
+ */
+public class MappedTraceReader implements TraceReader {
+
+    private static final long WINDOW = 1L << 28; // Bytes mapped at a time, a multiple of every page width
+
+    private final FileChannel channel;
+    private final int width; // Bytes per page number, 4 or 8
+    private final int pageShift;
+    private final long size;
+    private long mapped = 0; // File offset just past the current window
+    private IntBuffer ints; // View of the current window for 4-byte traces
+    private LongBuffer longs; // View of the current window for 8-byte traces
+
+    public MappedTraceReader(Path path, int width, int pageShift) throws IOException {
+        this.width = width;
+        this.pageShift = pageShift;
+        channel = FileChannel.open(path, StandardOpenOption.READ);
+        size = channel.size();
+        if (size % width != 0) {
+            channel.close();
+            throw new IOException(path + " is " + size + " bytes long, which is not a whole number of " + width
+                + "-byte pages.");
+        }
+    }
+
+    @Override
+    public int read(long[] chunk) throws IOException {
+        if (remaining() == 0) {
+            if (mapped == size) {
+                return -1;
+            }
+            mapNext();
+        }
+        int count = (int) Math.min(chunk.length, remaining());
+        if (width == Integer.BYTES) {
+            for (int i = 0; i < count; i++) {
+                chunk[i] = Integer.toUnsignedLong(ints.get()) >>> pageShift;
+            }
+        } else {
+            for (int i = 0; i < count; i++) {
+                long page = longs.get() >>> pageShift;
+                if (page < 0) {
+                    throw new IOException("Negative page number " + page + " in the trace.");
+                }
+                chunk[i] = page;
+            }
+        }
+        return count;
+    }
+
+    private long remaining() {
+        if (ints != null) {
+            return ints.remaining();
+        }
+        return longs == null ? 0 : longs.remaining();
+    }
+
+    private void mapNext() throws IOException {
+        long length = Math.min(WINDOW, size - mapped);
+        MappedByteBuffer window = channel.map(FileChannel.MapMode.READ_ONLY, mapped, length);
+        window.order(ByteOrder.LITTLE_ENDIAN);
+        mapped += length;
+        if (width == Integer.BYTES) {
+            ints = window.asIntBuffer();
+        } else {
+            longs = window.asLongBuffer();
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        ints = null;
+        longs = null;
+        channel.close();
+    }
+}
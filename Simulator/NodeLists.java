@@ -0,0 +1,89 @@
+import java.util.Arrays;
+
+/**
+ * Several intrusive doubly linked lists over one pool of nodes numbered 0..nodes-1, for policies that
+ * move entries between recency lists (ARC, 2Q, W-TinyLFU). Links, list membership and list sizes are
+ * plain int arrays, so moving a node from one list to another is a handful of array writes and never
+ * allocates. Each list runs from its most recently used node (head) to its least recently used (tail).
+ */
+public class NodeLists {
+
+    public static final int NONE = -1;
+
+    private final int[] prev; // Next more recently used node in the same list
+    private final int[] next; // Next less recently used node in the same list
+    private final int[] listOf; // List holding each node, NONE if free
+    private final int[] head;
+    private final int[] tail;
+    private final int[] size;
+
+    public NodeLists(int nodes, int lists) {
+        prev = new int[nodes];
+        next = new int[nodes];
+        listOf = new int[nodes];
+        head = new int[lists];
+        tail = new int[lists];
+        size = new int[lists];
+        Arrays.fill(listOf, NONE);
+        Arrays.fill(head, NONE);
+        Arrays.fill(tail, NONE);
+    }
+
+    /**
+     * Makes the node the most recently used member of the list, unlinking it first from wherever it is.
+     */
+    public void pushFront(int list, int node) {
+        if (listOf[node] != NONE) {
+            remove(node);
+        }
+        listOf[node] = list;
+        prev[node] = NONE;
+        next[node] = head[list];
+        if (head[list] == NONE) {
+            tail[list] = node;
+        } else {
+            prev[head[list]] = node;
+        }
+        head[list] = node;
+        size[list]++;
+    }
+
+    /**
+     * Unlinks the node from its list, leaving it free.
+     */
+    public void remove(int node) {
+        int list = listOf[node];
+        int before = prev[node];
+        int after = next[node];
+        if (before == NONE) {
+            head[list] = after;
+        } else {
+            next[before] = after;
+        }
+        if (after == NONE) {
+            tail[list] = before;
+        } else {
+            prev[after] = before;
+        }
+        listOf[node] = NONE;
+        size[list]--;
+    }
+
+    /**
+     * List holding the node, or NONE.
+     */
+    public int listOf(int node) {
+        return listOf[node];
+    }
+
+    /**
+     * Least recently used node of the list, or NONE if it is empty.
+     */
+    public int tail(int list) {
+        return tail[list];
+    }
+
+    public int size(int list) {
+        return size[list];
+    }
+}
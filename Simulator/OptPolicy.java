@@ -0,0 +1,117 @@
+/**
+ * Belady's optimal replacement. The resident page that is not used again, or else is used furthest
+ * in the future, is replaced (lowest frame first among pages never used again), matching simulateOpt.
+ *
+ * One backward pass over the reference string records, for every reference, where the same page is
+ * referenced next. Resident frames sit in a max-heap keyed by that next use, so the victim is the root
+ * and every reference costs O(log frames) instead of searching the rest of the string. The policy
+ * needs the whole reference string up front and must be fed it in order.
+ */
+public class OptPolicy implements ReplacementPolicy {
+
+    private static final int NEVER = Integer.MAX_VALUE; // Next use of a page that is not referenced again
+
+    private final int[] nextUse; // Index of the next reference to the same page, per reference
+    private final long[] memory; // Page held by each frame
+    private final PageTable slot; // Frame holding each resident page
+    private final long[] key; // Heap key per frame: next use, then lower frame first on ties
+    private final int[] heap; // Frames ordered as a max-heap on key
+    private final int[] heapIndex; // Position of each frame in the heap
+    private int used = 0;
+    private int position = 0; // Index of the reference being processed
+    private long victim = -1;
+
+    public OptPolicy(long[] trace, int frames) {
+        nextUse = new int[trace.length];
+        PageTable last = new PageTable(1024); // Next reference to each page seen so far, scanning backwards
+        for (int i = trace.length - 1; i >= 0; i--) {
+            int next = last.get(trace[i]);
+            nextUse[i] = next < 0 ? NEVER : next;
+            last.put(trace[i], i);
+        }
+        memory = new long[frames];
+        slot = new PageTable(frames);
+        key = new long[frames];
+        heap = new int[frames];
+        heapIndex = new int[frames];
+    }
+
+    @Override
+    public boolean reference(long page) {
+        victim = -1;
+        int next = nextUse[position++];
+        int frame = slot.get(page);
+        if (frame >= 0) {
+            key[frame] = key(next, frame);
+            siftUp(heapIndex[frame]); // The next use only ever moves later
+            return false;
+        }
+        if (used < memory.length) {
+            frame = used++;
+            heap[frame] = frame;
+            heapIndex[frame] = frame;
+            memory[frame] = page;
+            slot.put(page, frame);
+            key[frame] = key(next, frame);
+            siftUp(frame);
+        } else {
+            frame = heap[0];
+            victim = memory[frame];
+            slot.remove(victim);
+            memory[frame] = page;
+            slot.put(page, frame);
+            key[frame] = key(next, frame);
+            siftDown(0);
+        }
+        return true;
+    }
+
+    /**
+     * Orders by next use; among pages never used again the lower frame has the larger key.
+     */
+    private static long key(int next, int frame) {
+        return ((long) next << 32) | (Integer.MAX_VALUE - frame);
+    }
+
+    private void siftUp(int i) {
+        int frame = heap[i];
+        while (i > 0) {
+            int parent = (i - 1) / 2;
+            if (key[heap[parent]] >= key[frame]) {
+                break;
+            }
+            place(i, heap[parent]);
+            i = parent;
+        }
+        place(i, frame);
+    }
+
+    private void siftDown(int i) {
+        int frame = heap[i];
+        while (true) {
+            int child = 2 * i + 1;
+            if (child >= used) {
+                break;
+            }
+            if (child + 1 < used && key[heap[child + 1]] > key[heap[child]]) {
+                child++;
+            }
+            if (key[heap[child]] <= key[frame]) {
+                break;
+            }
+            place(i, heap[child]);
+            i = child;
+        }
+        place(i, frame);
+    }
+
+    private void place(int i, int frame) {
+        heap[i] = frame;
+        heapIndex[frame] = i;
+    }
+
+    @Override
+    public long victim() {
+        return victim;
+    }
+}
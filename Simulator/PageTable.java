@@ -0,0 +1,132 @@
+import java.util.Arrays;
+
+/**
+ * Map from 64-bit page numbers to int slots (a frame, an index, a dense id) with open addressing and
+ * linear probing over two primitive arrays, so a lookup is a multiply, a shift and usually one probe
+ * instead of a scan of the resident set or a boxed HashMap lookup. Pages must not be negative; -1
+ * marks an empty bucket. Removal shifts the following entries back rather than leaving tombstones, so
+ * lookups stay short however many pages come and go.
+ *
+ * A table starts at most a quarter full for the expected number of pages, which keeps probe chains
+ * (and mispredicted branches) short for resident sets that never outgrow their frame count, and only
+ * doubles once it passes half full.
+ */
+public class PageTable {
+
+    private static final long EMPTY = -1;
+
+    private long[] keys;
+    private int[] values;
+    private int mask;
+    private int shift; // 64 - log2(capacity), so the top bits of the hash pick the bucket
+    private int size = 0;
+
+    /**
+     * Creates a table that holds expected pages without growing.
+     */
+    public PageTable(int expected) {
+        int capacity = Integer.highestOneBit(Math.max(4, expected) * 4 - 1) << 1; // Load factor at most 1/4
+        keys = new long[capacity];
+        values = new int[capacity];
+        mask = capacity - 1;
+        shift = 64 - Integer.numberOfTrailingZeros(capacity);
+        Arrays.fill(keys, EMPTY);
+    }
+
+    /**
+     * Slot of the page, or -1 if the page is not in the table.
+     */
+    public int get(long page) {
+        int i = bucket(page);
+        while (true) {
+            long key = keys[i];
+            if (key == page) {
+                return values[i];
+            }
+            if (key == EMPTY) {
+                return -1;
+            }
+            i = (i + 1) & mask;
+        }
+    }
+
+    /**
+     * Maps the page to value, replacing any previous value.
+     */
+    public void put(long page, int value) {
+        int i = bucket(page);
+        while (keys[i] != EMPTY) {
+            if (keys[i] == page) {
+                values[i] = value;
+                return;
+            }
+            i = (i + 1) & mask;
+        }
+        keys[i] = page;
+        values[i] = value;
+        if (++size * 2 > keys.length) {
+            grow();
+        }
+    }
+
+    /**
+     * Removes the page and returns its slot, or -1 if it was not in the table.
+     */
+    public int remove(long page) {
+        int i = bucket(page);
+        while (keys[i] != page) {
+            if (keys[i] == EMPTY) {
+                return -1;
+            }
+            i = (i + 1) & mask;
+        }
+        int removed = values[i];
+        size--;
+        // Shift back every following entry that would otherwise become unreachable
+        int gap = i;
+        int j = (i + 1) & mask;
+        while (keys[j] != EMPTY) {
+            int home = bucket(keys[j]);
+            if (((j - home) & mask) >= ((j - gap) & mask)) {
+                keys[gap] = keys[j];
+                values[gap] = values[j];
+                gap = j;
+            }
+            j = (j + 1) & mask;
+        }
+        keys[gap] = EMPTY;
+        return removed;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Fibonacci hashing: the top bits of the product depend on every bit of the page, and runs of
+     * consecutive pages land in evenly spread buckets.
+     */
+    private int bucket(long page) {
+        return (int) ((page * 0x9E3779B97F4A7C15L) >>> shift);
+    }
+
+    private void grow() {
+        long[] oldKeys = keys;
+        int[] oldValues = values;
+        keys = new long[oldKeys.length * 2];
+        values = new int[oldValues.length * 2];
+        mask = keys.length - 1;
+        shift--;
+        Arrays.fill(keys, EMPTY);
+        for (int k = 0; k < oldKeys.length; k++) {
+            if (oldKeys[k] != EMPTY) {
+                int i = bucket(oldKeys[k]);
+                while (keys[i] != EMPTY) {
+                    i = (i + 1) & mask;
+                }
+                keys[i] = oldKeys[k];
+                values[i] = oldValues[k];
+            }
+        }
+    }
+}
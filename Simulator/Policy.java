@@ -0,0 +1,63 @@
+/**
+ * The page replacement policies known to the simulation engine.
+ */
+public enum Policy {
+    FIFO,
+    OPT,
+    LRU,
+    LFU,
+    LFU_RESET, // LFU that forgets the count of evicted pages
+    LFU_AGING, // LFU_RESET that also halves the counts periodically
+    CLOCK, // Second chance
+    ARC,
+    TWO_Q,
+    W_TINYLFU;
+
+    /**
+     * Creates a policy instance for the given reference string and number of physical frames. Only
+     * OPT looks at the trace; the others accept null.
+     */
+    public ReplacementPolicy create(long[] trace, int frames) {
+        switch (this) {
+            case FIFO:
+                return new FifoPolicy(frames);
+            case OPT:
+                return new OptPolicy(trace, frames);
+            case LRU:
+                return new LruPolicy(frames);
+            case LFU:
+                return new LfuPolicy(frames, LfuPolicy.CountMode.PERSISTENT);
+            case LFU_RESET:
+                return new LfuPolicy(frames, LfuPolicy.CountMode.RESET);
+            case LFU_AGING:
+                return new LfuPolicy(frames, LfuPolicy.CountMode.AGING);
+            case CLOCK:
+                return new ClockPolicy(frames);
+            case ARC:
+                return new ArcPolicy(frames);
+            case TWO_Q:
+                return new TwoQueuePolicy(frames);
+            default:
+                return new WTinyLfuPolicy(frames);
+        }
+    }
+
+    /**
+     * Looks a policy up by name, ignoring case and accepting dashes for underscores (e.g. "lru",
+     * "w-tinylfu"); "2q" and "second_chance" are accepted as well.
+     */
+    public static Policy parse(String name) {
+        String key = name.trim().toUpperCase().replace('-', '_');
+        if (key.equals("2Q")) {
+            return TWO_Q;
+        }
+        if (key.equals("SECOND_CHANCE")) {
+            return CLOCK;
+        }
+        try {
+            return valueOf(key);
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Unknown policy: " + name);
+        }
+    }
+}
@@ -0,0 +1,18 @@
+/**
+ * A page replacement policy driven one reference at a time. Pages are 64-bit numbers (any value from 0
+ * up), and implementations keep their state in primitive arrays and a PageTable, so processing a
+ * reference does not allocate.
+ */
+public interface ReplacementPolicy {
+
+    /**
+     * Processes one reference. Returns true if the page was not resident (a page fault); when the
+     * fault also evicted a page, victim() returns it until the next call.
+     */
+    boolean reference(long page);
+
+    /**
+     * Page evicted by the last reference, or -1 if it was a hit or filled a free frame.
+     */
+    long victim();
+}
@@ -0,0 +1,111 @@
+import java.io.IOException;
+import java.nio.file.Path;
+
+/**
+ * Headless page replacement simulation. Unlike the interactive simulateFifo/Opt/Lru/Lfu methods in
+ * Main it never reads from System.in, never prints and never builds a table, so it can run over long
+ * traces from the command line or from tests.
+ */
+public class SimulationEngine {
+
+    static final int CHUNK = 1 << 16; // Pages handed to a policy per read when streaming a trace file
+
+    /**
+     * Runs the policy over the whole trace and returns the fault count, hit ratio and victim log.
+     */
+    public static SimulationResult simulate(Policy policy, long[] trace, int frames) {
+        return simulate(policy, trace, frames, true);
+    }
+
+    /**
+     * Same as simulate(policy, trace, frames); skipping the victim log saves one long per reference
+     * on long traces.
+     */
+    public static SimulationResult simulate(Policy policy, long[] trace, int frames, boolean recordVictims) {
+        if (frames < 1) {
+            throw new IllegalArgumentException("At least one physical frame is required.");
+        }
+        checkPages(trace);
+        ReplacementPolicy replacement = policy.create(trace, frames);
+        long[] victims = recordVictims ? new long[trace.length] : null;
+        long faults = 0;
+
+        for (int i = 0; i < trace.length; i++) {
+            if (replacement.reference(trace[i])) {
+                faults++;
+            }
+            if (victims != null) {
+                victims[i] = replacement.victim();
+            }
+        }
+
+        return new SimulationResult(policy, frames, trace.length, faults, victims);
+    }
+
+    /**
+     * Runs the policy over a trace file in one pass without loading it, CHUNK pages at a time. OPT
+     * needs the whole future of the reference string and is not supported here; victims are not
+     * recorded.
+     */
+    public static SimulationResult simulate(Policy policy, Path path, TraceFormat format, int pageShift, int frames)
+            throws IOException {
+        return simulate(policy, format.open(path, pageShift), frames);
+    }
+
+    /**
+     * Runs the policy over everything the reader produces, CHUNK pages at a time, and closes it. The
+     * same restrictions apply as for trace files.
+     */
+    public static SimulationResult simulate(Policy policy, TraceReader source, int frames) throws IOException {
+        long references = 0;
+        long faults = 0;
+        try (TraceReader reader = source) {
+            if (frames < 1) {
+                throw new IllegalArgumentException("At least one physical frame is required.");
+            }
+            if (policy == Policy.OPT) {
+                throw new IllegalArgumentException("OPT needs the whole reference string and cannot be streamed.");
+            }
+            ReplacementPolicy replacement = policy.create(null, frames);
+            long[] chunk = new long[CHUNK];
+            int n;
+            while ((n = reader.read(chunk)) > 0) {
+                for (int i = 0; i < n; i++) {
+                    if (replacement.reference(chunk[i])) {
+                        faults++;
+                    }
+                }
+                references += n;
+            }
+        }
+
+        return new SimulationResult(policy, frames, references, faults, null);
+    }
+
+    /**
+     * Turns byte addresses into page numbers by dropping the offset within a page of 2^pageShift
+     * bytes. The shift is unsigned, so addresses in the upper half of the 64-bit space still give
+     * valid (non-negative) pages whenever pageShift is at least one.
+     */
+    public static void toPages(long[] addresses, int pageShift) {
+        if (pageShift < 0 || pageShift > 63) {
+            throw new IllegalArgumentException("The page shift must be between 0 and 63: " + pageShift);
+        }
+        if (pageShift > 0) {
+            for (int i = 0; i < addresses.length; i++) {
+                addresses[i] >>>= pageShift;
+            }
+        }
+    }
+
+    /**
+     * Pages may be any 64-bit number except negative ones, which are reserved for "no page".
+     */
+    static void checkPages(long[] trace) {
+        for (long page: trace) {
+            if (page < 0) {
+                throw new IllegalArgumentException("Page numbers must not be negative: " + page);
+            }
+        }
+    }
+}
@@ -0,0 +1,34 @@
+/**
+ * Outcome of a headless simulation: fault count, hit ratio and (optionally) the victim of every
+ * reference.
+ */
+public class SimulationResult {
+
+    public final Policy policy;
+    public final int frames;
+    public final long references;
+    public final long faults;
+    public final long[] victims; // Victim page per reference (-1 if none), null if not recorded
+
+    public SimulationResult(Policy policy, int frames, long references, long faults, long[] victims) {
+        this.policy = policy;
+        this.frames = frames;
+        this.references = references;
+        this.faults = faults;
+        this.victims = victims;
+    }
+
+    public long hits() {
+        return references - faults;
+    }
+
+    public double hitRatio() {
+        return references == 0 ? 0.0 : (double) hits() / references;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%s frames=%d references=%d faults=%d hit ratio=%.4f", policy, frames, references,
+            faults, hitRatio());
+    }
+}
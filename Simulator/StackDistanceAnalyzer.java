@@ -0,0 +1,196 @@
+import java.io.IOException;
+import java.io.Writer;
+import java.util.Arrays;
+
+/**
+ * Miss-ratio curves for every cache size from a single pass over the reference string, using Mattson's
+ * stack algorithms. LRU and OPT both have the inclusion property (a cache of c frames always holds a
+ * subset of what a cache of c + 1 frames holds), so each reference has a stack distance d and is a hit
+ * for exactly the cache sizes of d frames or more.
+ *
+ * For LRU the distance is the number of distinct pages referenced since the previous reference to the
+ * same page, plus one. Marking the position of the latest reference to every page in a Fenwick tree
+ * turns that into a prefix-sum difference, so the whole LRU curve costs O(n log n). The OPT stack is
+ * updated by carrying the lowest priority page (latest next use) down to the depth of the referenced
+ * page, which costs O(depth) per reference. Pages are first renumbered densely through a PageTable,
+ * so 64-bit page numbers cost no more than small ones.
+ */
+public class StackDistanceAnalyzer {
+
+    /**
+     * Returns misses[c] = number of page faults of an LRU cache with c frames, for c from 0 up to the
+     * number of distinct pages (beyond which only the cold misses remain).
+     */
+    public static long[] lruMisses(long[] pages) {
+        int[] trace = renumber(pages);
+        int n = trace.length;
+        int distinct = distinctPages(trace);
+        int[] last = new int[distinct];
+        Arrays.fill(last, -1);
+        int[] tree = new int[n + 1]; // Fenwick tree over reference positions
+        long[] histogram = new long[distinct + 2]; // histogram[d] = references at distance d
+        long cold = 0;
+
+        for (int i = 0; i < n; i++) {
+            int page = trace[i];
+            int previous = last[page];
+            if (previous < 0) {
+                cold++;
+            } else {
+                int distance = prefixSum(tree, i) - prefixSum(tree, previous + 1) + 1;
+                histogram[distance]++;
+                add(tree, previous + 1, -1);
+            }
+            add(tree, i + 1, 1);
+            last[page] = i;
+        }
+
+        return toMisses(histogram, cold);
+    }
+
+    /**
+     * Returns misses[c] = number of page faults of Belady's OPT with c frames, for c from 0 up to the
+     * number of distinct pages.
+     */
+    public static long[] optMisses(long[] pages) {
+        int[] trace = renumber(pages);
+        int n = trace.length;
+        int distinct = distinctPages(trace);
+        int[] nextUse = new int[n]; // Index of the next reference to the same page, per reference
+        int[] upcoming = new int[distinct]; // Next use of each page as the scan moves forward
+        Arrays.fill(upcoming, Integer.MAX_VALUE);
+        for (int i = n - 1; i >= 0; i--) {
+            nextUse[i] = upcoming[trace[i]];
+            upcoming[trace[i]] = i;
+        }
+
+        int[] stack = new int[distinct]; // stack[0] is the top
+        int[] depth = new int[distinct]; // Position of each page in the stack, -1 if not seen yet
+        Arrays.fill(depth, -1);
+        long[] histogram = new long[distinct + 2];
+        int size = 0;
+        long cold = 0;
+
+        for (int i = 0; i < n; i++) {
+            int page = trace[i];
+            int found = depth[page];
+            int end;
+            if (found < 0) {
+                cold++;
+                end = size++; // The carried page ends up in the new bottom slot
+            } else {
+                histogram[found + 1]++;
+                end = found;
+            }
+            upcoming[page] = nextUse[i];
+            if (end > 0) {
+                int carry = stack[0];
+                for (int k = 1; k < end; k++) {
+                    int other = stack[k];
+                    if (upcoming[other] > upcoming[carry]) { // Used later, so it is the one pushed down
+                        stack[k] = carry;
+                        depth[carry] = k;
+                        carry = other;
+                    }
+                }
+                stack[end] = carry;
+                depth[carry] = end;
+            }
+            stack[0] = page;
+            depth[page] = 0;
+        }
+
+        return toMisses(histogram, cold);
+    }
+
+    /**
+     * Writes "frames,lru_misses,lru_miss_ratio,opt_misses,opt_miss_ratio" rows for 1 frame up to the
+     * number of distinct pages. Either curve may be null to leave its columns out.
+     */
+    public static void writeCsv(Writer out, long references, long[] lru, long[] opt) throws IOException {
+        int sizes = Math.max(lru == null ? 0 : lru.length, opt == null ? 0 : opt.length);
+        out.write("frames");
+        if (lru != null) {
+            out.write(",lru_misses,lru_miss_ratio");
+        }
+        if (opt != null) {
+            out.write(",opt_misses,opt_miss_ratio");
+        }
+        out.write(System.lineSeparator());
+        for (int c = 1; c < sizes; c++) {
+            out.write(Integer.toString(c));
+            if (lru != null) {
+                writeColumns(out, lru[Math.min(c, lru.length - 1)], references);
+            }
+            if (opt != null) {
+                writeColumns(out, opt[Math.min(c, opt.length - 1)], references);
+            }
+            out.write(System.lineSeparator());
+        }
+        out.flush();
+    }
+
+    private static void writeColumns(Writer out, long misses, long references) throws IOException {
+        out.write("," + misses + "," + String.format("%.6f", references == 0 ? 0.0 : (double) misses / references));
+    }
+
+    /**
+     * Turns a stack distance histogram into misses per cache size: a cache of c frames misses every
+     * cold reference and every reference at a distance greater than c.
+     */
+    private static long[] toMisses(long[] histogram, long cold) {
+        long[] misses = new long[histogram.length - 1];
+        long beyond = cold;
+        for (int c = misses.length - 1; c >= 0; c--) {
+            misses[c] = beyond;
+            beyond += histogram[c];
+        }
+        return misses;
+    }
+
+    /**
+     * Replaces every page by its order of first appearance (0, 1, 2, ...).
+     */
+    private static int[] renumber(long[] pages) {
+        SimulationEngine.checkPages(pages);
+        PageTable ids = new PageTable(1024);
+        int[] trace = new int[pages.length];
+        for (int i = 0; i < pages.length; i++) {
+            int id = ids.get(pages[i]);
+            if (id < 0) {
+                id = ids.size();
+                ids.put(pages[i], id);
+            }
+            trace[i] = id;
+        }
+        return trace;
+    }
+
+    /**
+     * Number of distinct pages in a renumbered trace.
+     */
+    private static int distinctPages(int[] trace) {
+        int max = -1;
+        for (int page: trace) {
+            max = Math.max(max, page);
+        }
+        return max + 1;
+    }
+
+    private static void add(int[] tree, int i, int delta) {
+        for (; i < tree.length; i += i & -i) {
+            tree[i] += delta;
+        }
+    }
+
+    /**
+     * Sum of the marks at positions 1..i.
+     */
+    private static int prefixSum(int[] tree, int i) {
+        int sum = 0;
+        for (; i > 0; i -= i & -i) {
+            sum += tree[i];
+        }
+        return sum;
+    }
+}
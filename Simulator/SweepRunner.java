@@ -0,0 +1,87 @@
+import java.io.IOException;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * Runs every (policy, frames) cell of a sweep over one reference string at the same time. The trace
+ * is a plain long array that no cell writes to, so all cells share it without copying or locking; each
+ * cell builds its own policy, and the cells are spread over a fork/join pool that keeps every core
+ * busy. Results come back in sweep order (policy by policy, frames ascending as given).
+ */
+public class SweepRunner {
+
+    private final long[] trace;
+
+    public SweepRunner(long[] trace) {
+        SimulationEngine.checkPages(trace); // Checked once for all cells
+        this.trace = trace;
+    }
+
+    /**
+     * Simulates every combination of policies and frame counts on the common fork/join pool.
+     */
+    public List<SimulationResult> run(Policy[] policies, int[] frames) {
+        return run(policies, frames, ForkJoinPool.commonPool());
+    }
+
+    public List<SimulationResult> run(Policy[] policies, int[] frames, ForkJoinPool pool) {
+        List<Cell> cells = new ArrayList<>();
+        for (Policy policy: policies) {
+            for (int f: frames) {
+                if (f < 1) {
+                    throw new IllegalArgumentException("At least one physical frame is required.");
+                }
+                cells.add(new Cell(policy, f));
+            }
+        }
+        for (Cell cell: cells) {
+            pool.execute(cell);
+        }
+        List<SimulationResult> results = new ArrayList<>(cells.size());
+        for (Cell cell: cells) {
+            results.add(cell.join());
+        }
+        return results;
+    }
+
+    /**
+     * Writes the results as a "policy,frames,references,faults,hit_ratio" CSV table.
+     */
+    public static void writeTable(Writer out, List<SimulationResult> results) throws IOException {
+        out.write("policy,frames,references,faults,hit_ratio" + System.lineSeparator());
+        for (SimulationResult result: results) {
+            out.write(String.format("%s,%d,%d,%d,%.6f%n", result.policy, result.frames, result.references,
+                result.faults, result.hitRatio()));
+        }
+        out.flush();
+    }
+
+    /**
+     * One policy at one frame count over the shared trace.
+     */
+    @SuppressWarnings("serial") // Tasks are never serialized
+    private class Cell extends RecursiveTask<SimulationResult> {
+        private final Policy policy;
+        private final int frames;
+
+        Cell(Policy policy, int frames) {
+            this.policy = policy;
+            this.frames = frames;
+        }
+
+        @Override
+        protected SimulationResult compute() {
+            ReplacementPolicy replacement = policy.create(trace, frames);
+            long faults = 0;
+            for (long page: trace) {
+                if (replacement.reference(page)) {
+                    faults++;
+                }
+            }
+            return new SimulationResult(policy, frames, trace.length, faults, null);
+        }
+    }
+}
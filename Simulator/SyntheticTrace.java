@@ -0,0 +1,308 @@
+import java.util.SplittableRandom;
+
+/**
+ * Seeded synthetic reference strings with locality, produced on demand as a TraceReader. Nothing is
+ * buffered beyond the caller's chunk, so a generator can feed a billion-reference run through the
+ * streaming engine, and the same seed always yields the same trace (each policy can simply regenerate
+ * it). Pages are in [0, pages).
+ *
+ * Uniform - every page equally likely, like generateReferenceString
+ * Zipf - page k (from 0) with probability proportional to 1 / (k + 1)^exponent
+ * PhaseShift - uniform over a working set that jumps to a new random region every phase
+ * ScanMix - a hot set, interrupted by a sequential scan over the remaining pages
+ * Loop - 0, 1, ..., pages - 1 over and over
+ */
+public abstract class SyntheticTrace implements TraceReader {
+
+    protected final long pages;
+    protected final SplittableRandom random;
+    private long remaining; // References still to produce
+
+    protected SyntheticTrace(long pages, long length, long seed) {
+        if (pages < 1 || length < 0) {
+            throw new IllegalArgumentException("A synthetic trace needs at least one page and a length of 0 or more.");
+        }
+        this.pages = pages;
+        this.remaining = length;
+        random = new SplittableRandom(seed);
+    }
+
+    @Override
+    public int read(long[] chunk) {
+        if (remaining == 0) {
+            return -1;
+        }
+        int count = (int) Math.min(chunk.length, remaining);
+        fill(chunk, count);
+        remaining -= count;
+        return count;
+    }
+
+    /**
+     * Writes the next count pages into chunk[0..count).
+     */
+    protected abstract void fill(long[] chunk, int count);
+
+    @Override
+    public void close() {
+    }
+
+    /**
+     * Builds a generator from a "name[:arg[:arg]]" spec, with unspecified arguments defaulting from the
+     * page count and length:
+     *
+     * uniform[:pages], zipf[:pages[:exponent]], phase[:pages[:workingSet[:phaseLength]]],
+     * scan[:pages[:hotPages[:scanPercent]]], loop[:pages]
+     */
+    public static SyntheticTrace parse(String spec, long defaultPages, long length, long seed) {
+        String[] part = spec.trim().toLowerCase().split(":");
+        long pages = part.length > 1 ? Long.parseLong(part[1]) : defaultPages;
+        switch (part[0]) {
+            case "uniform":
+                return new Uniform(pages, length, seed);
+            case "zipf":
+                return new Zipf(pages, part.length > 2 ? Double.parseDouble(part[2]) : 0.99, length, seed);
+            case "phase":
+                return new PhaseShift(pages, part.length > 2 ? Long.parseLong(part[2]) : Math.max(1, pages / 10),
+                    part.length > 3 ? Long.parseLong(part[3]) : Math.max(1, length / 10), length, seed);
+            case "scan":
+                return new ScanMix(pages, part.length > 2 ? Long.parseLong(part[2]) : Math.max(1, pages / 10),
+                    part.length > 3 ? Integer.parseInt(part[3]) : 20, length, seed);
+            case "loop":
+                return new Loop(pages, length, seed);
+            default:
+                throw new IllegalArgumentException("Unknown workload: " + part[0]);
+        }
+    }
+
+    public static class Uniform extends SyntheticTrace {
+
+        public Uniform(long pages, long length, long seed) {
+            super(pages, length, seed);
+        }
+
+        @Override
+        protected void fill(long[] chunk, int count) {
+            for (int i = 0; i < count; i++) {
+                chunk[i] = random.nextLong(pages);
+            }
+        }
+    }
+
+    /**
+     * Zipf sampling without a table of the whole distribution. The first HEAD ranks, which carry most
+     * of the references, come from an alias table (Vose), so they cost one array lookup. Ranks beyond
+     * that use rejection-inversion (Hormann and Derflinger) restricted to the tail, which is O(1) and
+     * needs no memory for any number of pages. The tail's share is the integral of the density from
+     * HEAD + 1/2 to pages + 1/2, which differs from the exact sum by far less than a double's rounding
+     * error at these ranks. Works for any exponent greater than 0, including 1.
+     */
+    public static class Zipf extends SyntheticTrace {
+        private static final int HEAD = 1 << 16;
+
+        private final double exponent;
+        private final int head; // Ranks 1..head come from the alias table
+        private final double[] keep; // Probability of keeping slot i rather than taking alias[i]
+        private final int[] alias;
+        private final double headShare; // Probability that a reference falls in the head
+        private final double tailLow; // Range of u covering ranks head + 1..pages
+        private final double tailHigh;
+        private final double s;
+
+        public Zipf(long pages, double exponent, long length, long seed) {
+            super(pages, length, seed);
+            if (!(exponent > 0)) {
+                throw new IllegalArgumentException("The Zipf exponent must be greater than 0: " + exponent);
+            }
+            this.exponent = exponent;
+            head = (int) Math.min(pages, HEAD);
+            keep = new double[head];
+            alias = new int[head];
+            double headWeight = buildAlias();
+            tailLow = hIntegral(head + 0.5);
+            tailHigh = hIntegral(pages + 0.5);
+            headShare = headWeight / (headWeight + (tailHigh - tailLow));
+            s = 2 - hIntegralInverse(hIntegral(2.5) - h(2));
+        }
+
+        /**
+         * Fills keep and alias for ranks 1..head with weights 1 / rank^exponent, and returns the
+         * total weight.
+         */
+        private double buildAlias() {
+            double[] weight = new double[head];
+            double total = 0;
+            for (int i = 0; i < head; i++) {
+                weight[i] = h(i + 1);
+                total += weight[i];
+            }
+            int[] small = new int[head];
+            int[] large = new int[head];
+            int smallCount = 0;
+            int largeCount = 0;
+            for (int i = 0; i < head; i++) {
+                weight[i] = weight[i] * head / total; // Mean 1
+                if (weight[i] < 1) {
+                    small[smallCount++] = i;
+                } else {
+                    large[largeCount++] = i;
+                }
+            }
+            while (smallCount > 0 && largeCount > 0) {
+                int less = small[--smallCount];
+                int more = large[--largeCount];
+                keep[less] = weight[less];
+                alias[less] = more;
+                weight[more] -= 1 - weight[less];
+                if (weight[more] < 1) {
+                    small[smallCount++] = more;
+                } else {
+                    large[largeCount++] = more;
+                }
+            }
+            while (largeCount > 0) {
+                keep[large[--largeCount]] = 1;
+            }
+            while (smallCount > 0) { // Only rounding leaves these behind
+                keep[small[--smallCount]] = 1;
+            }
+            return total;
+        }
+
+        @Override
+        protected void fill(long[] chunk, int count) {
+            for (int i = 0; i < count; i++) {
+                chunk[i] = sample() - 1;
+            }
+        }
+
+        /**
+         * A rank from 1 to pages.
+         */
+        private long sample() {
+            if (head == pages || random.nextDouble() < headShare) {
+                int i = random.nextInt(head);
+                return (random.nextDouble() < keep[i] ? i : alias[i]) + 1;
+            }
+            while (true) {
+                double u = tailLow + random.nextDouble() * (tailHigh - tailLow);
+                double x = hIntegralInverse(u);
+                long k = (long) (x + 0.5);
+                if (k <= head) {
+                    k = head + 1;
+                } else if (k > pages) {
+                    k = pages;
+                }
+                if (k - x <= s || u >= hIntegral(k + 0.5) - h(k)) {
+                    return k;
+                }
+            }
+        }
+
+        private double h(double x) {
+            return Math.exp(-exponent * Math.log(x));
+        }
+
+        private double hIntegral(double x) {
+            double logX = Math.log(x);
+            return expm1OverX((1 - exponent) * logX) * logX;
+        }
+
+        private double hIntegralInverse(double x) {
+            double t = Math.max(-1, x * (1 - exponent));
+            return Math.exp(log1pOverX(t) * x);
+        }
+
+        private static double log1pOverX(double x) {
+            return Math.abs(x) > 1e-8 ? Math.log1p(x) / x : 1 - x * (0.5 - x * (1.0 / 3 - 0.25 * x));
+        }
+
+        private static double expm1OverX(double x) {
+            return Math.abs(x) > 1e-8 ? Math.expm1(x) / x : 1 + x * 0.5 * (1 + x / 3 * (1 + 0.25 * x));
+        }
+    }
+
+    /**
+     * Uniform references over a working set of workingSet consecutive pages, moved to a random new
+     * place every phaseLength references.
+     */
+    public static class PhaseShift extends SyntheticTrace {
+        private final long workingSet;
+        private final long phaseLength;
+        private long base;
+        private long left; // References left in the current phase
+
+        public PhaseShift(long pages, long workingSet, long phaseLength, long length, long seed) {
+            super(pages, length, seed);
+            if (workingSet < 1 || workingSet > pages || phaseLength < 1) {
+                throw new IllegalArgumentException("The working set must fit in the pages and phases must not be empty.");
+            }
+            this.workingSet = workingSet;
+            this.phaseLength = phaseLength;
+        }
+
+        @Override
+        protected void fill(long[] chunk, int count) {
+            for (int i = 0; i < count; i++) {
+                if (left == 0) {
+                    base = random.nextLong(pages - workingSet + 1);
+                    left = phaseLength;
+                }
+                left--;
+                chunk[i] = base + random.nextLong(workingSet);
+            }
+        }
+    }
+
+    /**
+     * Uniform references to the hot pages [0, hotPages), except that scanPercent of the references
+     * continue a sequential scan over the cold pages [hotPages, pages), wrapping around at the end.
+     */
+    public static class ScanMix extends SyntheticTrace {
+        private final long hotPages;
+        private final int scanPercent;
+        private long scan; // Next cold page of the scan
+
+        public ScanMix(long pages, long hotPages, int scanPercent, long length, long seed) {
+            super(pages, length, seed);
+            if (hotPages < 1 || hotPages >= pages || scanPercent < 0 || scanPercent > 100) {
+                throw new IllegalArgumentException("The hot set must leave cold pages to scan, and the scan share must be a percentage.");
+            }
+            this.hotPages = hotPages;
+            this.scanPercent = scanPercent;
+            scan = hotPages;
+        }
+
+        @Override
+        protected void fill(long[] chunk, int count) {
+            for (int i = 0; i < count; i++) {
+                if (random.nextInt(100) < scanPercent) {
+                    chunk[i] = scan;
+                    scan = scan + 1 == pages ? hotPages : scan + 1;
+                } else {
+                    chunk[i] = random.nextLong(hotPages);
+                }
+            }
+        }
+    }
+
+    /**
+     * The pages in order, repeated: the classic case where LRU and FIFO fault on every reference once
+     * the loop is longer than memory.
+     */
+    public static class Loop extends SyntheticTrace {
+        private long next = 0;
+
+        public Loop(long pages, long length, long seed) {
+            super(pages, length, seed);
+        }
+
+        @Override
+        protected void fill(long[] chunk, int count) {
+            for (int i = 0; i < count; i++) {
+                chunk[i] = next;
+                next = next + 1 == pages ? 0 : next + 1;
+            }
+        }
+    }
+}
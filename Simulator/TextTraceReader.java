@@ -0,0 +1,100 @@
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Streams a text trace of decimal page numbers separated by whitespace or commas through a fixed
+ * direct buffer over a FileChannel. Numbers are parsed straight from the bytes, without building
+ * Strings or splitting lines, and a number cut in two by the end of the buffer carries over to the
+ * next fill. Values are unsigned 64-bit numbers, as on the command line, so byte addresses that use
+ * the top bit are accepted; after the page shift they must fit in a non-negative long.
+ */
+public class TextTraceReader implements TraceReader {
+
+    private static final int BUFFER_SIZE = 1 << 20;
+    private static final long MAX_TENTH = Long.divideUnsigned(-1L, 10); // Largest value that can take one more digit
+    private static final long MAX_LAST_DIGIT = Long.remainderUnsigned(-1L, 10); // ... if that digit is at most this
+
+    private final FileChannel channel;
+    private final ByteBuffer buffer = ByteBuffer.allocateDirect(BUFFER_SIZE);
+    private final int pageShift;
+    private long offset = 0; // File offset of the next byte in buffer, for error messages
+    private boolean eof = false;
+    private long value = 0; // Page number being parsed
+    private boolean inNumber = false;
+
+    public TextTraceReader(Path path, int pageShift) throws IOException {
+        this.pageShift = pageShift;
+        channel = FileChannel.open(path, StandardOpenOption.READ);
+        buffer.flip(); // Start empty
+    }
+
+    @Override
+    public int read(long[] chunk) throws IOException {
+        int count = 0;
+        while (count < chunk.length) {
+            if (!buffer.hasRemaining()) {
+                if (eof || !fill()) {
+                    break;
+                }
+            }
+            byte b = buffer.get();
+            offset++;
+            if (b >= '0' && b <= '9') {
+                if (Long.compareUnsigned(value, MAX_TENTH) > 0 || value == MAX_TENTH && b - '0' > MAX_LAST_DIGIT) {
+                    throw new IOException("Page number too large at byte " + (offset - 1) + " of the trace.");
+                }
+                value = value * 10 + (b - '0');
+                inNumber = true;
+            } else if (b == ' ' || b == '\n' || b == '\r' || b == '\t' || b == ',') {
+                if (inNumber) {
+                    chunk[count++] = page();
+                }
+            } else {
+                throw new IOException("Unexpected character '" + (char) b + "' at byte " + (offset - 1)
+                    + " of the trace.");
+            }
+        }
+        if (eof && inNumber && count < chunk.length) { // The last number is not followed by a separator
+            chunk[count++] = page();
+        }
+        return count == 0 ? -1 : count;
+    }
+
+    /**
+     * Ends the number being parsed and returns its page.
+     */
+    private long page() throws IOException {
+        long page = value >>> pageShift;
+        if (page < 0) {
+            throw new IOException("Negative page number " + page + " in the trace.");
+        }
+        value = 0;
+        inNumber = false;
+        return page;
+    }
+
+    /**
+     * Refills the buffer from the channel; returns false at the end of the file.
+     */
+    private boolean fill() throws IOException {
+        buffer.clear();
+        int n;
+        do {
+            n = channel.read(buffer);
+        } while (n == 0);
+        buffer.flip();
+        if (n < 0) {
+            eof = true;
+            return false;
+        }
+        return true;
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+}
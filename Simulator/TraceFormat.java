@@ -0,0 +1,43 @@
+import java.io.IOException;
+import java.nio.file.Path;
+
+/**
+ * On-disk encodings of a page trace. Binary traces are raw little-endian page numbers with no header,
+ * as written by most tracing tools (32-bit values are read as unsigned); text traces are decimal page
+ * numbers separated by whitespace or commas, the same shape as the keyboard reference string. Every
+ * format can hold byte addresses instead of pages, turned into pages by a shift of log2(page size).
+ */
+public enum TraceFormat {
+    TEXT,
+    INT32,
+    INT64;
+
+    /**
+     * Opens a reader that streams the file in this format, shifting every value right by pageShift
+     * bits (0 when the file already holds page numbers).
+     */
+    public TraceReader open(Path path, int pageShift) throws IOException {
+        if (pageShift < 0 || pageShift > 63) {
+            throw new IllegalArgumentException("The page shift must be between 0 and 63: " + pageShift);
+        }
+        switch (this) {
+            case INT32:
+                return new MappedTraceReader(path, Integer.BYTES, pageShift);
+            case INT64:
+                return new MappedTraceReader(path, Long.BYTES, pageShift);
+            default:
+                return new TextTraceReader(path, pageShift);
+        }
+    }
+
+    /**
+     * Looks a format up by name, ignoring case (e.g. "int32").
+     */
+    public static TraceFormat parse(String name) {
+        try {
+            return valueOf(name.trim().toUpperCase());
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Unknown trace format: " + name);
+        }
+    }
+}
@@ -0,0 +1,41 @@
+import java.io.Closeable;
+import java.io.IOException;
+import java.util.Arrays;
+
+/**
+ * A page trace read in chunks, so traces far larger than the heap can be simulated. Readers fill a
+ * caller-owned buffer and never hold more than a fixed window of the file themselves.
+ */
+public interface TraceReader extends Closeable {
+
+    /**
+     * Fills chunk from the start with the next pages of the trace (already shifted down from byte
+     * addresses if the reader was opened with a page shift). Returns how many were read (at least one
+     * and at most chunk.length), or -1 once the trace is exhausted.
+     */
+    int read(long[] chunk) throws IOException;
+
+    /**
+     * Reads everything the reader has left into one array, for analyses that need random access to
+     * the trace (OPT, stack distances, sweeps sharing the trace between threads), and closes it.
+     */
+    static long[] readAll(TraceReader reader) throws IOException {
+        long[] chunk = new long[SimulationEngine.CHUNK];
+        long[] trace = new long[SimulationEngine.CHUNK];
+        int length = 0;
+        try (reader) {
+            int n;
+            while ((n = reader.read(chunk)) > 0) {
+                if (trace.length - length < n) {
+                    if (trace.length > Integer.MAX_VALUE / 2) {
+                        throw new IOException("The trace has too many references to load into memory.");
+                    }
+                    trace = Arrays.copyOf(trace, trace.length * 2);
+                }
+                System.arraycopy(chunk, 0, trace, length, n);
+                length += n;
+            }
+        }
+        return Arrays.copyOf(trace, length);
+    }
+}
@@ -0,0 +1,103 @@
+/**
+ * 2Q (Johnson and Shasha, full version). A page seen for the first time enters A1in, a FIFO of about
+ * a quarter of the frames; hits there do not promote it. Pages pushed out of A1in are remembered
+ * (without their contents) in the ghost FIFO A1out, sized to half the frames, and a page referenced
+ * again while in A1out goes straight into Am, an LRU list of the pages worth keeping. One-off scans
+ * therefore pass through A1in without flushing Am. The lists share a NodeLists pool of resident and
+ * ghost nodes, looked up through a PageTable.
+ */
+public class TwoQueuePolicy implements ReplacementPolicy {
+
+    private static final int A1IN = 0;
+    private static final int A1OUT = 1;
+    private static final int AM = 2;
+
+    private final int capacity;
+    private final int inLimit; // Kin
+    private final int outLimit; // Kout
+    private final NodeLists lists;
+    private final long[] pageOf; // Page held by each node
+    private final PageTable nodeOf; // Node of each resident or ghost page
+    private final int[] free; // Stack of unused nodes
+    private int freeCount;
+    private long victim = -1;
+
+    public TwoQueuePolicy(int frames) {
+        capacity = frames;
+        inLimit = Math.max(1, frames / 4);
+        outLimit = Math.max(1, frames / 2);
+        int nodes = frames + outLimit + 1; // Resident pages, ghosts, and one page arriving
+        lists = new NodeLists(nodes, 3);
+        pageOf = new long[nodes];
+        nodeOf = new PageTable(nodes);
+        free = new int[nodes];
+        for (int i = 0; i < nodes; i++) {
+            free[i] = nodes - 1 - i;
+        }
+        freeCount = nodes;
+    }
+
+    @Override
+    public boolean reference(long page) {
+        victim = -1;
+        int node = nodeOf.get(page);
+        int list = node < 0 ? NodeLists.NONE : lists.listOf(node);
+
+        if (list == AM) {
+            lists.pushFront(AM, node);
+            return false;
+        }
+        if (list == A1IN) {
+            return false;
+        }
+        if (list == A1OUT) {
+            lists.remove(node); // Out of A1out first, so trimming A1out cannot drop it
+        }
+        reclaim();
+        if (list == A1OUT) {
+            lists.pushFront(AM, node);
+        } else {
+            node = free[--freeCount];
+            pageOf[node] = page;
+            nodeOf.put(page, node);
+            lists.pushFront(A1IN, node);
+        }
+        return true;
+    }
+
+    /**
+     * Frees a frame when every frame is in use: from A1in (remembering the page in A1out) while it is
+     * over its share, otherwise from the LRU end of Am.
+     */
+    private void reclaim() {
+        if (lists.size(A1IN) + lists.size(AM) < capacity) {
+            return;
+        }
+        if (lists.size(A1IN) > inLimit || lists.size(AM) == 0) {
+            int node = lists.tail(A1IN);
+            victim = pageOf[node];
+            lists.pushFront(A1OUT, node);
+            if (lists.size(A1OUT) > outLimit) {
+                discard(lists.tail(A1OUT));
+            }
+        } else {
+            int node = lists.tail(AM);
+            victim = pageOf[node];
+            discard(node);
+        }
+    }
+
+    /**
+     * Forgets a node entirely and returns it to the pool.
+     */
+    private void discard(int node) {
+        lists.remove(node);
+        nodeOf.remove(pageOf[node]);
+        free[freeCount++] = node;
+    }
+
+    @Override
+    public long victim() {
+        return victim;
+    }
+}
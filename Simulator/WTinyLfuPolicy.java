@@ -0,0 +1,94 @@
+/**
+ * W-TinyLFU, the admission scheme behind Caffeine. New pages enter a small LRU window (1% of the
+ * frames, at least one). A page pushed out of the window is only admitted to the main cache if a
+ * CountMinSketch says it is referenced more often than the page the main cache would evict; otherwise
+ * the newcomer is the one evicted. The main cache is a segmented LRU: pages start in probation and a
+ * hit promotes them to protected (80% of the main cache), whose overflow is demoted back to probation.
+ * Bursts are absorbed by the window while the sketch keeps one-off pages from displacing popular ones.
+ */
+public class WTinyLfuPolicy implements ReplacementPolicy {
+
+    private static final int WINDOW = 0;
+    private static final int PROBATION = 1;
+    private static final int PROTECTED = 2;
+
+    private final int windowLimit;
+    private final int mainLimit;
+    private final int protectedLimit;
+    private final CountMinSketch sketch;
+    private final NodeLists lists;
+    private final long[] pageOf; // Page held by each node
+    private final PageTable nodeOf; // Node of each resident page
+    private final int[] free; // Stack of unused nodes
+    private int freeCount;
+    private long victim = -1;
+
+    public WTinyLfuPolicy(int frames) {
+        windowLimit = Math.max(1, frames / 100);
+        mainLimit = frames - windowLimit;
+        protectedLimit = mainLimit * 4 / 5;
+        sketch = new CountMinSketch(frames);
+        int nodes = frames + 1; // One extra while a page leaves the window
+        lists = new NodeLists(nodes, 3);
+        pageOf = new long[nodes];
+        nodeOf = new PageTable(nodes);
+        free = new int[nodes];
+        for (int i = 0; i < nodes; i++) {
+            free[i] = nodes - 1 - i;
+        }
+        freeCount = nodes;
+    }
+
+    @Override
+    public boolean reference(long page) {
+        victim = -1;
+        sketch.increment(page);
+        int node = nodeOf.get(page);
+        if (node >= 0) {
+            if (lists.listOf(node) == PROBATION) {
+                lists.pushFront(PROTECTED, node);
+                if (lists.size(PROTECTED) > protectedLimit) {
+                    lists.pushFront(PROBATION, lists.tail(PROTECTED));
+                }
+            } else {
+                lists.pushFront(lists.listOf(node), node);
+            }
+            return false;
+        }
+
+        node = free[--freeCount];
+        pageOf[node] = page;
+        nodeOf.put(page, node);
+        lists.pushFront(WINDOW, node);
+        if (lists.size(WINDOW) > windowLimit) {
+            int candidate = lists.tail(WINDOW);
+            if (lists.size(PROBATION) + lists.size(PROTECTED) < mainLimit) {
+                lists.pushFront(PROBATION, candidate);
+            } else {
+                int other = lists.tail(PROBATION);
+                if (other == NodeLists.NONE) {
+                    other = lists.tail(PROTECTED);
+                }
+                if (other != NodeLists.NONE && sketch.frequency(pageOf[candidate]) > sketch.frequency(pageOf[other])) {
+                    evict(other);
+                    lists.pushFront(PROBATION, candidate);
+                } else {
+                    evict(candidate);
+                }
+            }
+        }
+        return true;
+    }
+
+    private void evict(int node) {
+        victim = pageOf[node];
+        lists.remove(node);
+        nodeOf.remove(victim);
+        free[freeCount++] = node;
+    }
+
+    @Override
+    public long victim() {
+        return victim;
+    }
+}